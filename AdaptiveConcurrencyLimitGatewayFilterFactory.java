@@ -0,0 +1,189 @@
+package com.example.gateway;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.DispatcherHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-route AIMD concurrency limit. Each completed request is a sample; requests the open
+// circuit breaker short-circuits are not. An error or a 503/504 cuts the limit by backoffRatio.
+// Latency is compared as a gradient of two moving averages: when the short-term average
+// (~shortWindow samples) exceeds tolerance x the long-term one (~longWindow samples) the limit
+// is cut too, at most once per shortWindow samples, so a slow tail on a mixed route does not
+// count as congestion. Otherwise a busy route (in flight >= half
+// the limit) grows it by 1/limit, about +1 per round trip. Requests over the limit are not
+// queued but forwarded straight to the fallback URI with a ConcurrencyLimitExceededException,
+// which GatewayFallbackController turns into a 503.
+// Put it before circuitBreaker so shed requests never count as breaker failures.
+//
+// gateway.concurrency.limit / .inflight (gauges) and gateway.concurrency.rejected, per route.
+// Nothing waits, so in-flight is the route's whole queue depth.
+@Component
+public class AdaptiveConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<DispatcherHandler> dispatcherHandler;
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    public static class Config {
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private double tolerance = 1.5;
+        private int shortWindow = 20;
+        private int longWindow = 500;
+        private String fallbackUri = "forward:/custom-fallback";
+
+        public int getInitialLimit() { return initialLimit; }
+        public Config setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; return this; }
+        public int getMinLimit() { return minLimit; }
+        public Config setMinLimit(int minLimit) { this.minLimit = minLimit; return this; }
+        public int getMaxLimit() { return maxLimit; }
+        public Config setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; return this; }
+        public double getBackoffRatio() { return backoffRatio; }
+        public Config setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; return this; }
+        public double getTolerance() { return tolerance; }
+        public Config setTolerance(double tolerance) { this.tolerance = tolerance; return this; }
+        public int getShortWindow() { return shortWindow; }
+        public Config setShortWindow(int shortWindow) { this.shortWindow = shortWindow; return this; }
+        public int getLongWindow() { return longWindow; }
+        public Config setLongWindow(int longWindow) { this.longWindow = longWindow; return this; }
+        public String getFallbackUri() { return fallbackUri; }
+        public Config setFallbackUri(String fallbackUri) { this.fallbackUri = fallbackUri; return this; }
+    }
+
+    public static class ConcurrencyLimitExceededException extends RuntimeException {
+        public ConcurrencyLimitExceededException(String routeId, int limit) {
+            super("Concurrency limit " + limit + " reached for route " + routeId, null, false, false);
+        }
+    }
+
+    public AdaptiveConcurrencyLimitGatewayFilterFactory(MeterRegistry meterRegistry,
+                                                        ObjectProvider<DispatcherHandler> dispatcherHandler) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.dispatcherHandler = dispatcherHandler;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+            Limiter limiter = limiters.computeIfAbsent(routeId, id -> new Limiter(id, config, meterRegistry));
+
+            if (!limiter.tryAcquire()) {
+                meterRegistry.counter("gateway.concurrency.rejected", "route", routeId).increment();
+                return shed(exchange, config, new ConcurrencyLimitExceededException(routeId, limiter.limit()));
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limiter.release(); // client went away, says nothing about the backend
+                    return;
+                }
+                if (exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR)
+                        instanceof CallNotPermittedException) {
+                    // Short-circuited by the open breaker, the backend was never called. Counting
+                    // the fallback's 503 would hold the limit at minLimit after the breaker closes.
+                    limiter.release();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean overloaded = signal == SignalType.ON_ERROR
+                        || (status != null && (status.value() == 503 || status.value() == 504));
+                limiter.release(System.nanoTime() - start, overloaded);
+            });
+        };
+    }
+
+    // Same forward the circuit breaker filter does for its fallback
+    private Mono<Void> shed(ServerWebExchange exchange, Config config, ConcurrencyLimitExceededException cause) {
+        URI fallback = URI.create(config.getFallbackUri());
+        ServerWebExchangeUtils.reset(exchange);
+        exchange.getAttributes().put(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR, cause);
+        ServerWebExchange forwarded = exchange.mutate()
+                .request(exchange.getRequest().mutate().path(fallback.getPath()).build())
+                .build();
+        return dispatcherHandler.getObject().handle(forwarded);
+    }
+
+    static final class Limiter {
+        private final Config config;
+        private final double shortAlpha;
+        private final double longAlpha;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit;
+        private double shortRttNanos;
+        private double longRttNanos;
+        private int samplesSinceBackoff;
+
+        Limiter(String routeId, Config config, MeterRegistry meterRegistry) {
+            this.config = config;
+            this.shortAlpha = 2.0 / (config.getShortWindow() + 1);
+            this.longAlpha = 2.0 / (config.getLongWindow() + 1);
+            this.limit = config.getInitialLimit();
+            Gauge.builder("gateway.concurrency.limit", this, Limiter::limit).tag("route", routeId).register(meterRegistry);
+            Gauge.builder("gateway.concurrency.inflight", inFlight, AtomicInteger::get).tag("route", routeId).register(meterRegistry);
+        }
+
+        int limit() {
+            return (int) limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit()) return false;
+                if (inFlight.compareAndSet(current, current + 1)) return true;
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+
+        synchronized void release(long rttNanos, boolean overloaded) {
+            int inFlightBefore = inFlight.getAndDecrement();
+
+            // The long-term average follows a permanent backend change within ~longWindow samples
+            if (longRttNanos == 0) {
+                shortRttNanos = longRttNanos = rttNanos;
+            } else {
+                shortRttNanos += (rttNanos - shortRttNanos) * shortAlpha;
+                longRttNanos += (rttNanos - longRttNanos) * longAlpha;
+            }
+            // Recovered well below the baseline: bring it down faster than the average would
+            if (longRttNanos > shortRttNanos * 2) {
+                longRttNanos *= 0.95;
+            }
+
+            samplesSinceBackoff++;
+            boolean congested = shortRttNanos > longRttNanos * config.getTolerance();
+            if (overloaded || (congested && samplesSinceBackoff >= config.getShortWindow())) {
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+                samplesSinceBackoff = 0;
+            } else if (!congested && inFlightBefore * 2 >= limit) {
+                limit = Math.min(config.getMaxLimit(), limit + 1.0 / limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.gateway;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitGatewayFilterFactoryTest {
+
+    private final AdaptiveConcurrencyLimitGatewayFilterFactory.Config config =
+            new AdaptiveConcurrencyLimitGatewayFilterFactory.Config();
+    private final AdaptiveConcurrencyLimitGatewayFilterFactory.Limiter limiter =
+            new AdaptiveConcurrencyLimitGatewayFilterFactory.Limiter("my-service", config, new SimpleMeterRegistry());
+
+    // A busy route: the limit is saturated whenever a request completes
+    private void sample(long rttMillis, boolean overloaded) {
+        while (limiter.tryAcquire()) {
+            // fill up to the limit
+        }
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), overloaded);
+    }
+
+    @Test
+    void slowTailOnMixedRouteDoesNotDriveLimitToMinimum() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            sample(random.nextDouble() < 0.1 ? 100 : 10, false);
+        }
+        // A raw-sample comparison cut on every slow request and sat at minLimit here
+        assertThat(limiter.limit()).isGreaterThan(config.getInitialLimit() / 2);
+    }
+
+    @Test
+    void sustainedLatencyIncreaseCutsLimit() {
+        for (int i = 0; i < 1000; i++) {
+            sample(10, false);
+        }
+        int before = limiter.limit();
+
+        for (int i = 0; i < 200; i++) {
+            sample(50, false);
+        }
+        assertThat(limiter.limit()).isLessThan(before / 2);
+    }
+
+    @Test
+    void overloadCutsLimitImmediately() {
+        sample(10, true);
+        assertThat(limiter.limit()).isEqualTo((int) (config.getInitialLimit() * config.getBackoffRatio()));
+    }
+
+    @Test
+    void idleRouteDoesNotGrow() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertThat(limiter.limit()).isEqualTo(config.getInitialLimit());
+    }
+
+    // Through the filter, as the circuit breaker's fallback forward leaves the exchange
+    private double limitAfterFallback(Throwable cause, HttpStatus status) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GatewayFilter filter = new AdaptiveConcurrencyLimitGatewayFilterFactory(meterRegistry, null).apply(config);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/myservice/orders/42").build());
+
+        filter.filter(exchange, ex -> {
+            ex.getAttributes().put(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR, cause);
+            ex.getResponse().setStatusCode(status);
+            return Mono.empty();
+        }).block(Duration.ofSeconds(5));
+
+        return meterRegistry.get("gateway.concurrency.limit").tag("route", "unknown").gauge().value();
+    }
+
+    @Test
+    void requestShortCircuitedByOpenBreakerIsNotAnOverloadSample() {
+        CallNotPermittedException open = CallNotPermittedException.createCallNotPermittedException(
+                CircuitBreaker.ofDefaults("myCircuitBreaker"));
+
+        assertThat(limitAfterFallback(open, HttpStatus.SERVICE_UNAVAILABLE)).isEqualTo(config.getInitialLimit());
+    }
+
+    @Test
+    void upstreamTimeoutHandledByFallbackStillCutsLimit() {
+        assertThat(limitAfterFallback(new TimeoutException(), HttpStatus.GATEWAY_TIMEOUT))
+                .isLessThan(config.getInitialLimit());
+    }
+}
@@ -1,30 +1,19 @@
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.gateway.ErrorResponseWriter;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.web.server.ServerWebExchange;
-import org.springframework.core.io.buffer.DataBuffer;
 import reactor.core.publisher.Mono;
 
 public class ResponseUtils {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
+    // Serializes straight into a pooled DataBuffer, see ErrorResponseWriter
     public static Mono<Void> writeJsonResponse(ServerWebExchange exchange, Object body, HttpStatus status) {
-        byte[] bytes;
-        try {
-            bytes = objectMapper.writeValueAsBytes(body);
-        } catch (Exception e) {
-            bytes = "{\"error\":\"Internal error\"}".getBytes();
-            status = HttpStatus.INTERNAL_SERVER_ERROR;
-        }
-
-        var response = exchange.getResponse();
-        response.setStatusCode(status);
-        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        DataBuffer buffer = response.bufferFactory().wrap(bytes);
+        return ErrorResponseWriter.writeJson(exchange, body, status);
+    }
 
-        return response.writeWith(Mono.just(buffer));
+    // Fixed error bodies (status + constant reason) are encoded once and reused
+    public static Mono<Void> writeErrorResponse(ServerWebExchange exchange, HttpStatus status, String reason) {
+        return ErrorResponseWriter.writeCanonical(exchange, status, reason);
     }
 }
 
@@ -16,7 +16,7 @@ public JdbcCursorItemReader<Long> idReader(DataSource dataSource) {
 
 
 @Bean
-public ItemWriter<Long> bulkDeleteWriter(ElasticsearchClient elasticsearchClient) {
+public ItemWriter<Long> bulkDeleteWriter(ElasticsearchClient elasticsearchClient, BulkFailureJournal failureJournal) {
     return ids -> {
         if (ids == null || ids.isEmpty()) return;
 
@@ -33,14 +33,13 @@ public ItemWriter<Long> bulkDeleteWriter(ElasticsearchClient elasticsearchClient
 
         BulkResponse response = elasticsearchClient.bulk(request);
 
-        if (response.errors()) {
-            response.items().forEach(item -> {
-                if (item.error() != null) {
-                    System.err.println("Failed to delete ID: " + item.delete().id()
-                        + ", reason: " + item.error().reason());
-                }
-            });
-        }
+        response.items().forEach(item -> {
+            if (item.error() != null) {
+                failureJournal.recordFailure("delete", item.index(), item.id(), item.error().reason(), 1);
+            } else {
+                failureJournal.recordSuccess("delete", item.id());
+            }
+        });
     };
 }
 
@@ -56,3 +55,554 @@ public Step deleteFromElasticStep(JobRepository jobRepository,
             .writer(bulkDeleteWriter)
             .build();
 }
+
+
+
+// Partitioned purge: id ranges processed in parallel, one paging reader per partition.
+// Chunk size, worker threads and partition count come from purge.* properties.
+
+@Bean
+public Partitioner idRangePartitioner(DataSource dataSource) {
+    return new IdRangePartitioner(new JdbcTemplate(dataSource), """
+        SELECT MIN(a.id) AS min_id, MAX(a.id) AS max_id
+        FROM table_a a
+        JOIN table_b b ON a.some_id = b.some_id
+        WHERE a.status = 'inactive' AND b.deleted = 'N'
+    """);
+}
+
+@Bean
+@StepScope
+public JdbcPagingItemReader<Long> partitionIdReader(DataSource dataSource,
+                                                    @Value("#{stepExecutionContext['minId']}") Long minId,
+                                                    @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                                                    @Value("${purge.chunk-size:500}") int chunkSize) throws Exception {
+    SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+    queryProvider.setDataSource(dataSource);
+    queryProvider.setSelectClause("SELECT a.id");
+    queryProvider.setFromClause("FROM table_a a JOIN table_b b ON a.some_id = b.some_id");
+    queryProvider.setWhereClause("WHERE a.status = 'inactive' AND b.deleted = 'N' AND a.id BETWEEN :minId AND :maxId");
+    queryProvider.setSortKey("a.id");
+
+    // Reader state (last id read) is saved per partition, so a restart resumes mid-range
+    return new JdbcPagingItemReaderBuilder<Long>()
+            .name("partitionIdReader")
+            .dataSource(dataSource)
+            .queryProvider(queryProvider.getObject())
+            .parameterValues(Map.of("minId", minId, "maxId", maxId))
+            .pageSize(chunkSize)
+            .rowMapper((rs, rowNum) -> rs.getLong("id"))
+            .build();
+}
+
+@Bean
+public TaskExecutor purgeTaskExecutor(@Value("${purge.workers:4}") int workers) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setThreadNamePrefix("purge-");
+    return executor;
+}
+
+@Bean
+public Step deleteFromElasticWorkerStep(JobRepository jobRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        JdbcPagingItemReader<Long> partitionIdReader,
+                                        BulkIngesterItemWriter<Long> pipelinedBulkDeleteWriter,
+                                        @Value("${purge.chunk-size:500}") int chunkSize) {
+    return new StepBuilder("deleteFromElasticWorkerStep", jobRepository)
+            .<Long, Long>chunk(chunkSize, transactionManager)
+            .reader(partitionIdReader)
+            .writer(pipelinedBulkDeleteWriter)
+            .build();
+}
+
+@Bean
+public Step partitionedDeleteFromElasticStep(JobRepository jobRepository,
+                                             Partitioner idRangePartitioner,
+                                             Step deleteFromElasticWorkerStep,
+                                             TaskExecutor purgeTaskExecutor,
+                                             @Value("${purge.partitions:16}") int partitions) {
+    // More partitions than workers evens out skewed id ranges
+    return new StepBuilder("partitionedDeleteFromElasticStep", jobRepository)
+            .partitioner("deleteFromElasticWorkerStep", idRangePartitioner)
+            .step(deleteFromElasticWorkerStep)
+            .gridSize(partitions)
+            .taskExecutor(purgeTaskExecutor)
+            .build();
+}
+
+
+
+// Pipelined delete writer: the reader keeps reading while bulks are in flight, bounded by
+// purge.bulk.max-concurrent-requests. Step scoped so each step/partition owns its ingester.
+@Bean
+@StepScope
+public BulkIngesterItemWriter<Long> pipelinedBulkDeleteWriter(ElasticsearchClient elasticsearchClient,
+                                                              @Value("${purge.bulk.max-operations:1000}") int maxOperations,
+                                                              @Value("${purge.bulk.max-bytes:5242880}") long maxBytes,
+                                                              @Value("${purge.bulk.max-concurrent-requests:2}") int maxConcurrentRequests,
+                                                              @Value("${purge.bulk.flush-interval:1s}") Duration flushInterval,
+                                                              @Value("${purge.bulk.max-retries:5}") int maxRetries,
+                                                              @Value("${purge.bulk.initial-backoff:100ms}") Duration initialBackoff,
+                                                              BulkFailureJournal failureJournal) {
+    return new BulkIngesterItemWriter<>(elasticsearchClient,
+            id -> BulkOperation.of(b -> b
+                .delete(del -> del
+                    .index("your-index-name") // replace with your index name
+                    .id(String.valueOf(id))
+                )
+            ),
+            new BulkIngesterItemWriter.Settings(maxOperations, maxBytes, maxConcurrentRequests,
+                    flushInterval, maxRetries, initialBackoff),
+            failureJournal);
+}
+
+
+
+// Failure replay: rotate the journal, then re-drive the journaled operations against the index
+// they failed on. Anything that fails again lands in the fresh journal for the next replay.
+
+@Bean
+public Step rotateFailureJournalStep(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     BulkFailureJournal failureJournal) {
+    return new StepBuilder("rotateFailureJournalStep", jobRepository)
+            .tasklet((contribution, chunkContext) -> {
+                Path replayFile = failureJournal.rotate();
+                if (replayFile != null) {
+                    chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext()
+                            .putString("failureJournal.replayFile", replayFile.toString());
+                }
+                return RepeatStatus.FINISHED;
+            }, transactionManager)
+            .build();
+}
+
+@Bean
+@StepScope
+public FlatFileItemReader<BulkFailureJournal.Entry> failureJournalReader(
+        @Value("#{jobExecutionContext['failureJournal.replayFile']}") String replayFile) {
+    return new FlatFileItemReaderBuilder<BulkFailureJournal.Entry>()
+            .name("failureJournalReader")
+            .resource(new FileSystemResource(replayFile != null ? replayFile : "bulk-failures.none"))
+            .strict(false) // no replay file -> nothing to read
+            .lineMapper((line, lineNumber) -> BulkFailureJournal.Entry.parse(line))
+            .build();
+}
+
+// Which orders belong in the index. A NULL status counts as active and the check ignores case;
+// the failure replay, the incremental sync and the full reindex (and its count check) all use
+// this one predicate so the rebuilt index holds exactly what sync keeps.
+private static final String ACTIVE_ORDER = "(a.status IS NULL OR LOWER(a.status) <> 'inactive')";
+
+// Journaled operation to re-drive. document is the order's current row for index/create/update
+// entries, null for deletes and for orders that are inactive or gone by now
+public record ReplayOperation(BulkFailureJournal.Entry entry, ElasticSearchOrderDetail document) {}
+
+// Each (index, operation, id) once even if it failed on several attempts. The journal holds no
+// documents, so index-type entries are replayed with the order's current state: indexed if it is
+// still active, deleted otherwise, as the incremental sync would.
+@Bean
+@StepScope
+public ItemProcessor<BulkFailureJournal.Entry, ReplayOperation> failedOperationProcessor(DataSource dataSource) {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    BeanPropertyRowMapper<ElasticSearchOrderDetail> documentMapper = new BeanPropertyRowMapper<>(ElasticSearchOrderDetail.class);
+    Set<String> seen = new HashSet<>();
+    return entry -> {
+        if (!seen.add(entry.index() + "/" + entry.operationType() + "/" + entry.id())) return null;
+        if ("delete".equals(entry.operationType())) return new ReplayOperation(entry, null);
+
+        List<ElasticSearchOrderDetail> current = jdbcTemplate.query("""
+            SELECT a.*, b.deleted
+            FROM table_a a
+            JOIN table_b b ON a.some_id = b.some_id
+            WHERE a.id = ? AND
+        """ + ACTIVE_ORDER, documentMapper, Long.valueOf(entry.id()));
+        return new ReplayOperation(entry, current.isEmpty() ? null : current.get(0));
+    };
+}
+
+@Bean
+@StepScope
+public BulkIngesterItemWriter<ReplayOperation> journalReplayWriter(ElasticsearchClient elasticsearchClient,
+                                                                  BulkFailureJournal failureJournal,
+                                                                  @Value("${purge.bulk.max-operations:1000}") int maxOperations,
+                                                                  @Value("${purge.bulk.max-concurrent-requests:2}") int maxConcurrentRequests) {
+    return new BulkIngesterItemWriter<>(elasticsearchClient,
+            op -> op.document() != null
+                    ? BulkOperation.of(b -> b.index(idx -> idx
+                        .index(op.entry().index())
+                        .id(op.entry().id())
+                        .document(op.document())))
+                    : BulkOperation.of(b -> b.delete(del -> del
+                        .index(op.entry().index())
+                        .id(op.entry().id()))),
+            new BulkIngesterItemWriter.Settings(maxOperations, 5 * 1024 * 1024, maxConcurrentRequests,
+                    Duration.ofSeconds(1), 5, Duration.ofMillis(100)),
+            failureJournal);
+}
+
+@Bean
+public Step replayFailedOperationsStep(JobRepository jobRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       FlatFileItemReader<BulkFailureJournal.Entry> failureJournalReader,
+                                       ItemProcessor<BulkFailureJournal.Entry, ReplayOperation> failedOperationProcessor,
+                                       BulkIngesterItemWriter<ReplayOperation> journalReplayWriter,
+                                       @Value("${purge.chunk-size:500}") int chunkSize) {
+    return new StepBuilder("replayFailedOperationsStep", jobRepository)
+            .<BulkFailureJournal.Entry, ReplayOperation>chunk(chunkSize, transactionManager)
+            .reader(failureJournalReader)
+            .processor(failedOperationProcessor)
+            .writer(journalReplayWriter)
+            .build();
+}
+
+@Bean
+public Job replayFailedOperationsJob(JobRepository jobRepository,
+                                     Step rotateFailureJournalStep,
+                                     Step replayFailedOperationsStep) {
+    return new JobBuilder("replayFailedOperationsJob", jobRepository)
+            .incrementer(new RunIdIncrementer())
+            .start(rotateFailureJournalStep)
+            .next(replayFailedOperationsStep)
+            .build();
+}
+
+
+
+// Incremental sync: only rows whose last_modified falls in the run's window (see
+// HighWaterMarkListener) are read; inactive orders are deleted, everything else is (re)indexed.
+
+public record OrderChange(long id, boolean active, ElasticSearchOrderDetail document) {}
+
+@Bean
+public HighWaterMarkListener highWaterMarkListener(JobExplorer jobExplorer,
+                                                   DataSource dataSource,
+                                                   @Value("${sync.safety-lag:2m}") Duration safetyLag,
+                                                   @Value("${sync.initial-lower-bound:0}") long initialLowerBound) {
+    return new HighWaterMarkListener(jobExplorer, dataSource, safetyLag, initialLowerBound);
+}
+
+@Bean
+@StepScope
+public JdbcPagingItemReader<OrderChange> changedOrderReader(DataSource dataSource,
+                                                            @Value("#{jobExecutionContext['sync.lowerBound']}") Long lowerBound,
+                                                            @Value("#{jobExecutionContext['sync.upperBound']}") Long upperBound,
+                                                            @Value("${sync.chunk-size:500}") int chunkSize) throws Exception {
+    SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+    queryProvider.setDataSource(dataSource);
+    queryProvider.setSelectClause("SELECT a.*, b.deleted, CASE WHEN " + ACTIVE_ORDER + " THEN 1 ELSE 0 END AS active_order");
+    queryProvider.setFromClause("FROM table_a a JOIN table_b b ON a.some_id = b.some_id");
+    // A change on either side of the join counts
+    queryProvider.setWhereClause("""
+        WHERE (a.last_modified > :lowerBound AND a.last_modified <= :upperBound)
+           OR (b.last_modified > :lowerBound AND b.last_modified <= :upperBound)
+    """);
+    queryProvider.setSortKey("a.id");
+
+    BeanPropertyRowMapper<ElasticSearchOrderDetail> documentMapper = new BeanPropertyRowMapper<>(ElasticSearchOrderDetail.class);
+
+    return new JdbcPagingItemReaderBuilder<OrderChange>()
+            .name("changedOrderReader")
+            .dataSource(dataSource)
+            .queryProvider(queryProvider.getObject())
+            .parameterValues(Map.of(
+                    "lowerBound", new Timestamp(lowerBound),
+                    "upperBound", new Timestamp(upperBound)))
+            .pageSize(chunkSize)
+            .rowMapper((rs, rowNum) -> new OrderChange(
+                    rs.getLong("id"),
+                    rs.getInt("active_order") == 1,
+                    documentMapper.mapRow(rs, rowNum)))
+            .build();
+}
+
+@Bean
+@StepScope
+public BulkIngesterItemWriter<OrderChange> orderChangeWriter(ElasticsearchClient elasticsearchClient,
+                                                             BulkFailureJournal failureJournal,
+                                                             @Value("${sync.bulk.max-operations:1000}") int maxOperations,
+                                                             @Value("${sync.bulk.max-concurrent-requests:2}") int maxConcurrentRequests) {
+    return new BulkIngesterItemWriter<>(elasticsearchClient,
+            change -> change.active()
+                    ? BulkOperation.of(b -> b.index(idx -> idx
+                        .index("order_details_alias")
+                        .id(String.valueOf(change.id()))
+                        .document(change.document())))
+                    : BulkOperation.of(b -> b.delete(del -> del
+                        .index("order_details_alias")
+                        .id(String.valueOf(change.id())))),
+            new BulkIngesterItemWriter.Settings(maxOperations, 5 * 1024 * 1024, maxConcurrentRequests,
+                    Duration.ofSeconds(1), 5, Duration.ofMillis(100)),
+            failureJournal);
+}
+
+@Bean
+public Step incrementalSyncStep(JobRepository jobRepository,
+                                PlatformTransactionManager transactionManager,
+                                JdbcPagingItemReader<OrderChange> changedOrderReader,
+                                BulkIngesterItemWriter<OrderChange> orderChangeWriter,
+                                @Value("${sync.chunk-size:500}") int chunkSize) {
+    return new StepBuilder("incrementalSyncStep", jobRepository)
+            .<OrderChange, OrderChange>chunk(chunkSize, transactionManager)
+            .reader(changedOrderReader)
+            .writer(orderChangeWriter)
+            .build();
+}
+
+@Bean
+public Job incrementalSyncJob(JobRepository jobRepository,
+                              HighWaterMarkListener highWaterMarkListener,
+                              Step incrementalSyncStep) {
+    return new JobBuilder("incrementalSyncJob", jobRepository)
+            .incrementer(new RunIdIncrementer())
+            .listener(highWaterMarkListener)
+            .start(incrementalSyncStep)
+            .build();
+}
+
+
+
+// Streaming purge: ids fetched with an explicit fetch size into long[] blocks and written as raw
+// _bulk bytes. One item = purge.stream.block-size ids.
+
+@Bean
+@StepScope
+public IdBlockReader idBlockReader(DataSource dataSource,
+                                   @Value("${purge.stream.fetch-size:5000}") int fetchSize,
+                                   @Value("${purge.stream.block-size:1000}") int blockSize) {
+    return new IdBlockReader(dataSource, """
+        SELECT a.id
+        FROM table_a a
+        JOIN table_b b ON a.some_id = b.some_id
+        WHERE a.status = 'inactive' AND b.deleted = 'N' AND a.id > ?
+        ORDER BY a.id
+    """, fetchSize, blockSize);
+}
+
+@Bean
+public RawBulkDeleteWriter rawBulkDeleteWriter(RestClient restClient, BulkFailureJournal failureJournal) {
+    return new RawBulkDeleteWriter(restClient, "your-index-name", failureJournal); // replace with your index name
+}
+
+@Bean
+public Step streamingDeleteFromElasticStep(JobRepository jobRepository,
+                                           PlatformTransactionManager transactionManager,
+                                           IdBlockReader idBlockReader,
+                                           RawBulkDeleteWriter rawBulkDeleteWriter) {
+    return new StepBuilder("streamingDeleteFromElasticStep", jobRepository)
+            .<long[], long[]>chunk(1, transactionManager)
+            .reader(idBlockReader)
+            .writer(rawBulkDeleteWriter)
+            .build();
+}
+
+
+
+// Full reindex: Oracle -> new versioned index (bulk-load settings) -> restore + force-merge ->
+// count check -> atomic swap of order_details_alias. The index name travels in the job context
+// as reindex.index. Don't run incrementalSyncJob while this runs; its next run after the swap
+// re-applies anything changed since its last high-water mark.
+
+@Bean
+public OrderIndexRebuilder orderIndexRebuilder(ElasticsearchClient elasticsearchClient) {
+    return new OrderIndexRebuilder(elasticsearchClient, new ClassPathResource("order_details_index.json"), "order_details_alias");
+}
+
+@Bean
+public Step createVersionedIndexStep(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     OrderIndexRebuilder orderIndexRebuilder) {
+    return new StepBuilder("createVersionedIndexStep", jobRepository)
+            .tasklet((contribution, chunkContext) -> {
+                ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+                if (!jobContext.containsKey("reindex.index")) {
+                    jobContext.putString("reindex.index", orderIndexRebuilder.newIndexName());
+                }
+                orderIndexRebuilder.createForBulkLoad(jobContext.getString("reindex.index"));
+                return RepeatStatus.FINISHED;
+            }, transactionManager)
+            .build();
+}
+
+@Bean
+public Partitioner activeOrderRangePartitioner(DataSource dataSource) {
+    return new IdRangePartitioner(new JdbcTemplate(dataSource), """
+        SELECT MIN(a.id) AS min_id, MAX(a.id) AS max_id
+        FROM table_a a
+        JOIN table_b b ON a.some_id = b.some_id
+        WHERE
+    """ + ACTIVE_ORDER);
+}
+
+@Bean
+@StepScope
+public JdbcPagingItemReader<ElasticSearchOrderDetail> partitionOrderReader(DataSource dataSource,
+                                                                           @Value("#{stepExecutionContext['minId']}") Long minId,
+                                                                           @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                                                                           @Value("${reindex.chunk-size:2000}") int chunkSize) throws Exception {
+    SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+    queryProvider.setDataSource(dataSource);
+    queryProvider.setSelectClause("SELECT a.*, b.deleted");
+    queryProvider.setFromClause("FROM table_a a JOIN table_b b ON a.some_id = b.some_id");
+    queryProvider.setWhereClause("WHERE " + ACTIVE_ORDER + " AND a.id BETWEEN :minId AND :maxId");
+    queryProvider.setSortKey("a.id");
+
+    return new JdbcPagingItemReaderBuilder<ElasticSearchOrderDetail>()
+            .name("partitionOrderReader")
+            .dataSource(dataSource)
+            .queryProvider(queryProvider.getObject())
+            .parameterValues(Map.of("minId", minId, "maxId", maxId))
+            .pageSize(chunkSize)
+            .rowMapper(new BeanPropertyRowMapper<>(ElasticSearchOrderDetail.class))
+            .build();
+}
+
+// Larger bulks and more of them in flight than the purge/sync writers: the target index has
+// no replicas or refreshes yet and nothing searches it
+@Bean
+@StepScope
+public BulkIngesterItemWriter<ElasticSearchOrderDetail> reindexWriter(ElasticsearchClient elasticsearchClient,
+                                                                      BulkFailureJournal failureJournal,
+                                                                      @Value("#{jobExecutionContext['reindex.index']}") String index,
+                                                                      @Value("${reindex.bulk.max-operations:5000}") int maxOperations,
+                                                                      @Value("${reindex.bulk.max-bytes:15728640}") long maxBytes,
+                                                                      @Value("${reindex.bulk.max-concurrent-requests:4}") int maxConcurrentRequests) {
+    return new BulkIngesterItemWriter<>(elasticsearchClient,
+            order -> BulkOperation.of(b -> b.index(idx -> idx
+                    .index(index)
+                    .id(String.valueOf(order.getId()))
+                    .document(order))),
+            new BulkIngesterItemWriter.Settings(maxOperations, maxBytes, maxConcurrentRequests,
+                    Duration.ofSeconds(5), 8, Duration.ofMillis(200)),
+            failureJournal);
+}
+
+@Bean
+public TaskExecutor reindexTaskExecutor(@Value("${reindex.workers:8}") int workers) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setThreadNamePrefix("reindex-");
+    return executor;
+}
+
+@Bean
+public Step reindexWorkerStep(JobRepository jobRepository,
+                              PlatformTransactionManager transactionManager,
+                              JdbcPagingItemReader<ElasticSearchOrderDetail> partitionOrderReader,
+                              BulkIngesterItemWriter<ElasticSearchOrderDetail> reindexWriter,
+                              @Value("${reindex.chunk-size:2000}") int chunkSize) {
+    return new StepBuilder("reindexWorkerStep", jobRepository)
+            .<ElasticSearchOrderDetail, ElasticSearchOrderDetail>chunk(chunkSize, transactionManager)
+            .reader(partitionOrderReader)
+            .writer(reindexWriter)
+            .build();
+}
+
+@Bean
+public Step partitionedReindexStep(JobRepository jobRepository,
+                                   Partitioner activeOrderRangePartitioner,
+                                   Step reindexWorkerStep,
+                                   TaskExecutor reindexTaskExecutor,
+                                   @Value("${reindex.partitions:32}") int partitions) {
+    return new StepBuilder("partitionedReindexStep", jobRepository)
+            .partitioner("reindexWorkerStep", activeOrderRangePartitioner)
+            .step(reindexWorkerStep)
+            .gridSize(partitions)
+            .taskExecutor(reindexTaskExecutor)
+            .build();
+}
+
+@Bean
+public Step finishReindexStep(JobRepository jobRepository,
+                              PlatformTransactionManager transactionManager,
+                              OrderIndexRebuilder orderIndexRebuilder,
+                              @Value("${reindex.refresh-interval:1s}") String refreshInterval,
+                              @Value("${reindex.replicas:1}") int replicas) {
+    return new StepBuilder("finishReindexStep", jobRepository)
+            .tasklet((contribution, chunkContext) -> {
+                String index = chunkContext.getStepContext().getStepExecution().getJobExecution()
+                        .getExecutionContext().getString("reindex.index");
+                orderIndexRebuilder.finishBulkLoad(index, refreshInterval, replicas);
+                return RepeatStatus.FINISHED;
+            }, transactionManager)
+            .build();
+}
+
+// Oracle keeps changing during the load, so a small difference can be allowed
+@Bean
+public Step validateReindexStep(JobRepository jobRepository,
+                                PlatformTransactionManager transactionManager,
+                                OrderIndexRebuilder orderIndexRebuilder,
+                                DataSource dataSource,
+                                @Value("${reindex.max-count-difference:0}") long maxDifference) {
+    return new StepBuilder("validateReindexStep", jobRepository)
+            .tasklet((contribution, chunkContext) -> {
+                String index = chunkContext.getStepContext().getStepExecution().getJobExecution()
+                        .getExecutionContext().getString("reindex.index");
+                Long expected = new JdbcTemplate(dataSource).queryForObject("""
+                    SELECT COUNT(*)
+                    FROM table_a a
+                    JOIN table_b b ON a.some_id = b.some_id
+                    WHERE
+                """ + ACTIVE_ORDER, Long.class);
+                orderIndexRebuilder.validateCount(index, expected, maxDifference);
+                return RepeatStatus.FINISHED;
+            }, transactionManager)
+            .build();
+}
+
+@Bean
+public Step swapOrderAliasStep(JobRepository jobRepository,
+                               PlatformTransactionManager transactionManager,
+                               OrderIndexRebuilder orderIndexRebuilder,
+                               GlobalSearchCache globalSearchCache) {
+    return new StepBuilder("swapOrderAliasStep", jobRepository)
+            .tasklet((contribution, chunkContext) -> {
+                ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+                Set<String> previous = orderIndexRebuilder.swapAlias(jobContext.getString("reindex.index"));
+                jobContext.putString("reindex.previousIndices", String.join(",", previous));
+                globalSearchCache.invalidateAll(); // cached results came from the old index
+                return RepeatStatus.FINISHED;
+            }, transactionManager)
+            .build();
+}
+
+@Bean
+public Job reindexJob(JobRepository jobRepository,
+                      Step createVersionedIndexStep,
+                      Step partitionedReindexStep,
+                      Step finishReindexStep,
+                      Step validateReindexStep,
+                      Step swapOrderAliasStep) {
+    return new JobBuilder("reindexJob", jobRepository)
+            .incrementer(new RunIdIncrementer())
+            .start(createVersionedIndexStep)
+            .next(partitionedReindexStep)
+            .next(finishReindexStep)
+            .next(validateReindexStep)
+            .next(swapOrderAliasStep)
+            .build();
+}
+
+
+
+// Metrics and /actuator/batchprogress for every tasklet step, including partition workers and
+// steps defined elsewhere (conditionalJob). Static with a lazy provider so the post-processor
+// doesn't pull the MeterRegistry in before the rest of the context.
+@Bean
+public static BeanPostProcessor batchMetricsRegistrar(ObjectProvider<BatchMetricsListener> batchMetricsListener) {
+    return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof TaskletStep step) {
+                BatchMetricsListener listener = batchMetricsListener.getObject();
+                step.registerStepExecutionListener(listener);
+                step.registerChunkListener(listener);
+            }
+            return bean;
+        }
+    };
+}
@@ -0,0 +1,157 @@
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Step and chunk instrumentation for every tasklet step (registered in Batch.java):
+//   batch.items.read / written / skipped   counters, per job and step (rates come from these)
+//   batch.chunk.duration                   chunk latency histogram, tagged outcome=success|error
+// Partitions share their worker step's tags ("worker:partition3" -> "worker") to keep
+// cardinality low; per-partition detail is in the live view at /actuator/batchprogress.
+@Component
+@Endpoint(id = "batchprogress")
+public class BatchMetricsListener implements StepExecutionListener, ChunkListener {
+
+    public static final String TOTAL_KEY = "progress.total";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Running> running = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+
+    public record StepProgress(String job, String step, String partition, long read, long written, long skipped,
+                               long commits, double readsPerSecond, Long total, Double percent, Duration eta) {}
+
+    private static final class Running {
+        final StepExecution execution;
+        final Tags tags;
+        long reportedRead, reportedWrite, reportedSkip;
+
+        Running(StepExecution execution, Tags tags) {
+            this.execution = execution;
+            this.tags = tags;
+        }
+    }
+
+    public BatchMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        running.put(stepExecution.getId(), new Running(stepExecution, tagsOf(stepExecution)));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        Running step = running.remove(stepExecution.getId());
+        if (step != null) report(step);
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        recordChunk(stepExecution, "success");
+        Running step = running.get(stepExecution.getId());
+        if (step != null) report(step);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        recordChunk(context.getStepContext().getStepExecution(), "error");
+    }
+
+    @ReadOperation
+    public List<StepProgress> progress() {
+        return running.values().stream()
+                .map(step -> progressOf(step.execution))
+                .sorted(Comparator.comparing(StepProgress::job).thenComparing(StepProgress::step)
+                        .thenComparing(p -> p.partition() == null ? "" : p.partition()))
+                .toList();
+    }
+
+    private void recordChunk(StepExecution stepExecution, String outcome) {
+        Long start = chunkStart.get();
+        chunkStart.remove();
+        if (start == null) return;
+        Timer.builder("batch.chunk.duration")
+                .tags(tagsOf(stepExecution).and("outcome", outcome))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // Counters get the delta since the last report, chunks of one step run on one thread
+    private void report(Running step) {
+        StepExecution execution = step.execution;
+        long read = execution.getReadCount();
+        long written = execution.getWriteCount();
+        long skipped = execution.getSkipCount();
+        meterRegistry.counter("batch.items.read", step.tags).increment(read - step.reportedRead);
+        meterRegistry.counter("batch.items.written", step.tags).increment(written - step.reportedWrite);
+        meterRegistry.counter("batch.items.skipped", step.tags).increment(skipped - step.reportedSkip);
+        step.reportedRead = read;
+        step.reportedWrite = written;
+        step.reportedSkip = skipped;
+    }
+
+    // Total comes from progress.total if a step puts it in its context, otherwise from the
+    // partition's id range; with gaps in the ids the ETA is pessimistic.
+    private static StepProgress progressOf(StepExecution execution) {
+        String[] name = execution.getStepName().split(":", 2);
+        long read = execution.getReadCount();
+
+        LocalDateTime startTime = execution.getStartTime();
+        double seconds = startTime == null ? 0
+                : Duration.between(startTime.atZone(ZoneId.systemDefault()).toInstant(), Instant.now()).toMillis() / 1000.0;
+        double rate = seconds > 0 ? read / seconds : 0;
+
+        Long total = totalOf(execution.getExecutionContext());
+        Double percent = total == null || total == 0 ? null : Math.min(100.0, 100.0 * read / total);
+        Duration eta = total == null || rate == 0 ? null
+                : Duration.ofSeconds((long) (Math.max(0, total - read) / rate));
+
+        return new StepProgress(execution.getJobExecution().getJobInstance().getJobName(), name[0],
+                name.length > 1 ? name[1] : null, read, execution.getWriteCount(), execution.getSkipCount(),
+                execution.getCommitCount(), rate, total, percent, eta);
+    }
+
+    private static Long totalOf(ExecutionContext context) {
+        if (context.containsKey(TOTAL_KEY)) {
+            return context.getLong(TOTAL_KEY);
+        }
+        if (context.containsKey("minId") && context.containsKey("maxId")) {
+            return context.getLong("maxId") - context.getLong("minId") + 1;
+        }
+        return null;
+    }
+
+    private static Tags tagsOf(StepExecution execution) {
+        return Tags.of(
+                "job", execution.getJobExecution().getJobInstance().getJobName(),
+                "step", execution.getStepName().split(":", 2)[0]);
+    }
+}
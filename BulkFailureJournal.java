@@ -0,0 +1,98 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only journal of failed bulk items, one tab-separated line per item:
+//   timestamp  operationType  index  id  attempt  reason
+// A replay run rotates the file and re-drives only those ids. Successes are not journaled,
+// only logged for every Nth item.
+@Component
+public class BulkFailureJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkFailureJournal.class);
+
+    private final Path journalFile;
+    private final long successLogEvery;
+    private final AtomicLong successes = new AtomicLong();
+
+    private BufferedWriter writer;
+
+    public record Entry(long timestamp, String operationType, String index, String id, int attempt, String reason) {
+
+        public static Entry parse(String line) {
+            String[] parts = line.split("\t", 6);
+            return new Entry(Long.parseLong(parts[0]), parts[1], parts[2], parts[3],
+                    Integer.parseInt(parts[4]), parts.length > 5 ? parts[5] : "");
+        }
+    }
+
+    public BulkFailureJournal(@Value("${bulk.failure-journal.path:logs/bulk-failures.tsv}") Path journalFile,
+                              @Value("${bulk.success-log-every:10000}") long successLogEvery) {
+        this.journalFile = journalFile;
+        this.successLogEvery = successLogEvery;
+    }
+
+    public synchronized void recordFailure(String operationType, String index, String id, String reason, int attempt) {
+        log.error("Bulk operation failed. Type: {}, Index: {}, ID: {}, Attempt: {}, Reason: {}",
+                operationType, index, id, attempt, reason);
+        try {
+            if (writer == null) {
+                Files.createDirectories(journalFile.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(System.currentTimeMillis() + "\t" + operationType + "\t" + index + "\t" + id + "\t"
+                    + attempt + "\t" + (reason == null ? "" : reason.replaceAll("[\t\r\n]", " ")));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            // The error log line above is the fallback record
+            log.warn("Could not write to failure journal {}: {}", journalFile, e.getMessage());
+        }
+    }
+
+    public void recordSuccess(String operationType, String id) {
+        long count = successes.incrementAndGet();
+        if (count % successLogEvery == 0) {
+            log.info("Bulk operations succeeded so far: {} (latest Type: {}, ID: {})", count, operationType, id);
+        }
+    }
+
+    // Moves the current journal aside for replay and returns it, or null if there is nothing to replay.
+    // New failures (including ones from the replay itself) go to a fresh journal.
+    public synchronized Path rotate() {
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            if (!Files.exists(journalFile) || Files.size(journalFile) == 0) {
+                return null;
+            }
+            Path replayFile = journalFile.resolveSibling(journalFile.getFileName() + ".replay-" + System.currentTimeMillis());
+            return Files.move(journalFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate failure journal " + journalFile, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperationBase;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.elasticsearch.client.ResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemWriter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// ItemWriter that hands operations to a BulkIngester instead of waiting for each BulkResponse.
+// Batches close on operation count, bytes or flush interval; at most maxConcurrentRequests
+// bulks are in flight, after which write() blocks and holds the reader back. Items rejected
+// with 429 / es_rejected_execution_exception are re-added with exponential backoff.
+//
+// Bulks are pipelined within a chunk only: write() returns once every bulk of the chunk and its
+// retries have completed, so the chunk (and the reader's checkpoint) never commits ahead of
+// Elasticsearch and the step stays restart-safe. Use a chunk size of a few maxOperations.
+//
+// Register as @StepScope: the ingester is opened and drained with the step (ItemStream), and
+// each partition needs its own instance. Items that finally fail go to the BulkFailureJournal.
+// Bulk round trips are timed as batch.es.bulk.duration, 429s counted as batch.es.bulk.rejected
+// and final failures as batch.es.bulk.failed, tagged with the step (partition suffix dropped).
+public class BulkIngesterItemWriter<T> implements ItemWriter<T>, ItemStream {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIngesterItemWriter.class);
+
+    public record Settings(int maxOperations,
+                           long maxBytes,
+                           int maxConcurrentRequests,
+                           Duration flushInterval,
+                           int maxRetries,
+                           Duration initialBackoff) {
+    }
+
+    private record Attempt(int number) {}
+
+    private record PendingRetry(BulkOperation operation, int attempt) {}
+
+    private final ElasticsearchClient client;
+    private final Function<T, BulkOperation> toOperation;
+    private final Settings settings;
+    private final BulkFailureJournal failureJournal;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Long> bulkStarts = new ConcurrentHashMap<>();
+    private final Set<PendingRetry> pendingRetries = ConcurrentHashMap.newKeySet();
+    private final AtomicLong failedItems = new AtomicLong();
+
+    // Operations handed to the ingester that have not yet succeeded or finally failed. Counted
+    // before add() and only released by a bulk response or fail(), so a retry waiting on its
+    // backoff or an operation the ingester's own flush has taken but not yet sent still counts.
+    private final Object progress = new Object();
+    private long unfinishedOperations;
+    private long progressEvents;
+
+    // Read by the retry scheduler thread
+    private volatile BulkIngester<Attempt> ingester;
+    private volatile ScheduledExecutorService retryScheduler;
+    private Tags tags = Tags.empty();
+
+    public BulkIngesterItemWriter(ElasticsearchClient client, Function<T, BulkOperation> toOperation, Settings settings,
+                                  BulkFailureJournal failureJournal) {
+        this(client, toOperation, settings, failureJournal, Metrics.globalRegistry);
+    }
+
+    public BulkIngesterItemWriter(ElasticsearchClient client, Function<T, BulkOperation> toOperation, Settings settings,
+                                  BulkFailureJournal failureJournal, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.toOperation = toOperation;
+        this.settings = settings;
+        this.failureJournal = failureJournal;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext != null) {
+            tags = Tags.of("job", stepContext.getJobName(), "step", stepContext.getStepName().split(":", 2)[0]);
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+        ingester = BulkIngester.of(b -> b
+                .client(client)
+                .maxOperations(settings.maxOperations())
+                .maxSize(settings.maxBytes())
+                .maxConcurrentRequests(settings.maxConcurrentRequests())
+                .flushInterval(settings.flushInterval().toMillis(), TimeUnit.MILLISECONDS)
+                .listener(new RetryingListener()));
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) {
+        for (T item : chunk) {
+            started();
+            try {
+                // Blocks while maxConcurrentRequests bulks are in flight
+                ingester.add(toOperation.apply(item), new Attempt(0));
+            } catch (RuntimeException e) {
+                finished(1);
+                throw e;
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (ingester == null) return;
+
+        BulkIngester<Attempt> closing = ingester;
+        try {
+            drain();
+        } catch (ItemStreamException e) {
+            log.warn("Closing bulk writer without draining: {}", e.getMessage());
+        }
+        closing.close(); // flushes and waits for in-flight requests
+        ingester = null;
+
+        // A 429 in the last bulks can still schedule a retry; nothing will send it any more
+        retryScheduler.shutdownNow();
+        try {
+            retryScheduler.awaitTermination(settings.initialBackoff().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (PendingRetry retry : List.copyOf(pendingRetries)) {
+            if (pendingRetries.remove(retry)) {
+                fail(retry.operation(), "writer closed before retry", retry.attempt());
+            }
+        }
+
+        if (failedItems.get() > 0) {
+            log.warn("Bulk writer finished with {} failed items", failedItems.get());
+        }
+    }
+
+    public long getFailedItems() {
+        return failedItems.get();
+    }
+
+    // Sends whatever the ingester buffered and waits until every operation added so far has
+    // succeeded or finally failed. Woken by bulk results and by retries going back into the
+    // ingester, which are flushed right away instead of waiting for the flush interval.
+    private void drain() {
+        BulkIngester<Attempt> current = ingester;
+        try {
+            while (true) {
+                long seen;
+                synchronized (progress) {
+                    if (unfinishedOperations == 0) return;
+                    seen = progressEvents;
+                }
+                current.flush(); // outside the lock, it can block on maxConcurrentRequests
+                synchronized (progress) {
+                    while (unfinishedOperations > 0 && progressEvents == seen) {
+                        progress.wait();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ItemStreamException("Interrupted while waiting for bulk requests", e);
+        }
+    }
+
+    private void started() {
+        synchronized (progress) {
+            unfinishedOperations++;
+        }
+    }
+
+    private void finished(int operations) {
+        synchronized (progress) {
+            unfinishedOperations -= operations;
+            progressEvents++;
+            progress.notifyAll();
+        }
+    }
+
+    private void requeued() {
+        synchronized (progress) {
+            progressEvents++;
+            progress.notifyAll();
+        }
+    }
+
+    private void retry(BulkOperation operation, int attempt) {
+        long delay = settings.initialBackoff().toMillis() << Math.min(attempt - 1, 10);
+        PendingRetry retry = new PendingRetry(operation, attempt);
+        pendingRetries.add(retry);
+        try {
+            retryScheduler.schedule(() -> resend(retry), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Writer already closed, the last in-flight bulk was rejected
+            if (pendingRetries.remove(retry)) {
+                fail(operation, "rejected after writer close", attempt);
+            }
+        }
+    }
+
+    private void resend(PendingRetry retry) {
+        // close() fails whatever it finds still pending, whoever removes the entry owns the item
+        if (!pendingRetries.remove(retry)) return;
+        BulkIngester<Attempt> current = ingester;
+        try {
+            if (current == null) {
+                fail(retry.operation(), "writer closed before retry", retry.attempt());
+                return;
+            }
+            current.add(retry.operation(), new Attempt(retry.attempt()));
+            requeued();
+        } catch (IllegalStateException e) {
+            // Ingester closed between the read and the add
+            fail(retry.operation(), "writer closed before retry", retry.attempt());
+        }
+    }
+
+    private void fail(BulkOperation operation, String reason, int attempt) {
+        failedItems.incrementAndGet();
+        meterRegistry.counter("batch.es.bulk.failed", tags).increment();
+        BulkOperationBase target = (BulkOperationBase) operation._get();
+        try {
+            failureJournal.recordFailure(operation._kind().jsonValue(), target.index(), target.id(), reason, attempt);
+        } finally {
+            finished(1);
+        }
+    }
+
+    private void recordBulk(long executionId, String outcome) {
+        Long start = bulkStarts.remove(executionId);
+        if (start == null) return;
+        Timer.builder("batch.es.bulk.duration")
+                .tags(tags.and("outcome", outcome))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean isRejected(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof ElasticsearchException ee && ee.status() == 429) return true;
+            if (t instanceof ResponseException re && re.getResponse().getStatusLine().getStatusCode() == 429) return true;
+        }
+        return false;
+    }
+
+    private class RetryingListener implements BulkListener<Attempt> {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request, List<Attempt> contexts) {
+            bulkStarts.put(executionId, System.nanoTime());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<Attempt> contexts, BulkResponse response) {
+            recordBulk(executionId, response.errors() ? "partial" : "success");
+            List<BulkResponseItem> items = response.items();
+            for (int i = 0; i < items.size(); i++) {
+                BulkResponseItem item = items.get(i);
+                if (item.error() == null) {
+                    try {
+                        failureJournal.recordSuccess(item.operationType().jsonValue(), item.id());
+                    } finally {
+                        finished(1);
+                    }
+                    continue;
+                }
+
+                int attempt = contexts.get(i).number() + 1;
+                boolean rejected = item.status() == 429 || "es_rejected_execution_exception".equals(item.error().type());
+                if (rejected) meterRegistry.counter("batch.es.bulk.rejected", tags).increment();
+                if (rejected && attempt <= settings.maxRetries()) {
+                    retry(request.operations().get(i), attempt);
+                } else {
+                    fail(request.operations().get(i), item.error().reason(), attempt);
+                }
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<Attempt> contexts, Throwable failure) {
+            recordBulk(executionId, "error");
+            List<BulkOperation> operations = request.operations();
+            boolean rejected = isRejected(failure);
+            if (rejected) meterRegistry.counter("batch.es.bulk.rejected", tags).increment(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                int attempt = contexts.get(i).number() + 1;
+                if (rejected && attempt <= settings.maxRetries()) {
+                    retry(operations.get(i), attempt);
+                } else {
+                    fail(operations.get(i), failure.getMessage(), attempt);
+                }
+            }
+            log.error("Bulk request {} with {} operations failed: {}", executionId, operations.size(), failure.getMessage());
+        }
+    }
+}
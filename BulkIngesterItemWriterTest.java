@@ -0,0 +1,158 @@
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkIngesterItemWriterTest {
+
+    private final List<String> failures = new CopyOnWriteArrayList<>();
+    private final BulkFailureJournal journal = new BulkFailureJournal(Path.of("unused.tsv"), 1000) {
+        @Override
+        public synchronized void recordFailure(String operationType, String index, String id, String reason, int attempt) {
+            failures.add(id + ":" + attempt + ":" + reason);
+        }
+    };
+
+    @AfterEach
+    void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    @Test
+    void rejectedItemIsRetriedBeforeWriteReturns() {
+        BulkResponder bulk = new BulkResponder(call -> call == 1 ? 429 : 200);
+        BulkIngesterItemWriter<Long> writer = writer(bulk, Duration.ofMillis(10));
+        writer.open(new ExecutionContext());
+
+        writer.write(Chunk.of(1L));
+
+        // The chunk may only commit once Elasticsearch has the item
+        assertThat(bulk.calls).hasValue(2);
+        writer.close();
+        assertThat(failures).isEmpty();
+    }
+
+    // Bulks complete on another thread, as with the real transport
+    @Test
+    void writeReturnsOnlyOnceEveryItemIsAcknowledged() {
+        BulkResponder bulk = new BulkResponder(call -> call == 1 ? 429 : 200, Duration.ofMillis(50));
+        BulkIngesterItemWriter<Long> writer = writer(bulk, Duration.ofMillis(10));
+        writer.open(new ExecutionContext());
+
+        writer.write(Chunk.of(1L, 2L, 3L));
+
+        assertThat(bulk.acknowledged).containsExactlyInAnyOrder("1", "2", "3");
+        writer.close();
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void exhaustedRetriesAreJournaled() {
+        BulkResponder bulk = new BulkResponder(call -> 429);
+        BulkIngesterItemWriter<Long> writer = writer(bulk, Duration.ofMillis(5));
+        writer.open(new ExecutionContext());
+
+        writer.write(Chunk.of(1L));
+        writer.close();
+
+        assertThat(bulk.calls).hasValue(4); // first attempt + maxRetries
+        assertThat(failures).singleElement().asString().startsWith("1:4:");
+        assertThat(writer.getFailedItems()).isEqualTo(1);
+    }
+
+    @Test
+    void retryStillScheduledAtCloseIsJournaledNotLost() throws Exception {
+        BulkResponder bulk = new BulkResponder(call -> call == 1 ? 429 : 200);
+        BulkIngesterItemWriter<Long> writer = writer(bulk, Duration.ofMinutes(1));
+        writer.open(new ExecutionContext());
+
+        // Interrupted while draining: the 429 has scheduled a retry a minute out
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> writer.write(Chunk.of(1L))).isInstanceOf(ItemStreamException.class);
+        assertThat(bulk.calls).hasValue(1);
+
+        writer.close();
+        Thread.interrupted();
+        Thread.sleep(50);
+
+        assertThat(failures).containsExactly("1:1:writer closed before retry");
+        assertThat(bulk.calls).hasValue(1);
+    }
+
+    private BulkIngesterItemWriter<Long> writer(BulkResponder bulk, Duration initialBackoff) {
+        return new BulkIngesterItemWriter<>(new ElasticsearchClient(bulk.transport()),
+                id -> BulkOperation.of(b -> b.delete(d -> d.index("orders").id(String.valueOf(id)))),
+                new BulkIngesterItemWriter.Settings(10, 1024 * 1024, 1, Duration.ofHours(1), 3, initialBackoff),
+                journal, new SimpleMeterRegistry());
+    }
+
+    // Answers every bulk after latency (synchronously when zero); the status per item is chosen
+    // by call number (1-based). Ids answered with 200 are collected in acknowledged.
+    private static final class BulkResponder {
+        private final IntFunction<Integer> statusForCall;
+        private final Duration latency;
+        final AtomicInteger calls = new AtomicInteger();
+        final List<String> acknowledged = new CopyOnWriteArrayList<>();
+
+        BulkResponder(IntFunction<Integer> statusForCall) {
+            this(statusForCall, Duration.ZERO);
+        }
+
+        BulkResponder(IntFunction<Integer> statusForCall, Duration latency) {
+            this.statusForCall = statusForCall;
+            this.latency = latency;
+        }
+
+        FakeElasticsearchTransport transport() {
+            return new FakeElasticsearchTransport(request -> respond((BulkRequest) request));
+        }
+
+        private CompletableFuture<BulkResponse> respond(BulkRequest request) {
+            int status = statusForCall.apply(calls.incrementAndGet());
+            List<BulkResponseItem> items = request.operations().stream()
+                    .map(op -> BulkResponseItem.of(i -> {
+                        i.operationType(OperationType.Delete).index("orders").id(op.delete().id()).status(status);
+                        if (status == 429) {
+                            i.error(e -> e.type("es_rejected_execution_exception").reason("queue full"));
+                        }
+                        return i;
+                    }))
+                    .toList();
+            BulkResponse response = BulkResponse.of(r -> r.took(1).errors(status != 200).items(items));
+            if (latency.isZero()) {
+                acknowledge(response);
+                return CompletableFuture.completedFuture(response);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                acknowledge(response);
+                return response;
+            }, CompletableFuture.delayedExecutor(latency.toMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        private void acknowledge(BulkResponse response) {
+            response.items().stream()
+                    .filter(item -> item.status() == 200)
+                    .forEach(item -> acknowledged.add(item.id()));
+        }
+    }
+}
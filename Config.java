@@ -22,3 +22,63 @@ public class Step1Decider implements JobExecutionDecider {
                 .on("*").end()
             .build();
     }
+
+
+
+// Parallel variant of conditionalJob. Steps listed in myapp.parallel-steps run together in one
+// split on conditionalJobTaskExecutor, placed where the first of them sits in step1..step4;
+// the others keep their sequential order. step1 stays behind Step1Decider in either position.
+@Value("${myapp.parallel-steps:step2,step3}")
+private List<String> parallelSteps;
+
+@Bean
+public TaskExecutor conditionalJobTaskExecutor(@Value("${myapp.parallel-threads:4}") int threads) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setThreadNamePrefix("conditional-job-");
+    return executor;
+}
+
+@Bean
+public StepTimingListener stepTimingListener(MeterRegistry meterRegistry) {
+    return new StepTimingListener(meterRegistry);
+}
+
+@Bean
+public Job parallelConditionalJob(TaskExecutor conditionalJobTaskExecutor, StepTimingListener stepTimingListener) {
+    Map<String, Flow> flows = new LinkedHashMap<>();
+    flows.put("step1", new FlowBuilder<SimpleFlow>("step1Flow")
+            .start(step1Decider)
+                .on("STEP1_ENABLED").to(step1())
+            .from(step1Decider)
+                .on("STEP1_DISABLED").end()
+            .build());
+    flows.put("step2", new FlowBuilder<SimpleFlow>("step2Flow").start(step2()).build());
+    flows.put("step3", new FlowBuilder<SimpleFlow>("step3Flow").start(step3()).build());
+    flows.put("step4", new FlowBuilder<SimpleFlow>("step4Flow").start(step4()).build());
+
+    Flow[] parallel = flows.entrySet().stream()
+            .filter(e -> parallelSteps.contains(e.getKey()))
+            .map(Map.Entry::getValue)
+            .toArray(Flow[]::new);
+    Flow split = new FlowBuilder<SimpleFlow>("parallelSteps")
+            .split(conditionalJobTaskExecutor)
+            .add(parallel)
+            .build();
+
+    List<Flow> sequence = new ArrayList<>();
+    flows.forEach((name, flow) -> {
+        if (!parallelSteps.contains(name)) {
+            sequence.add(flow);
+        } else if (!sequence.contains(split)) {
+            sequence.add(split);
+        }
+    });
+
+    JobFlowBuilder builder = new JobBuilder("parallelConditionalJob", jobRepository)
+            .listener(stepTimingListener)
+            .start(sequence.get(0));
+    sequence.stream().skip(1).forEach(builder::next);
+    return builder.end().build();
+}
@@ -0,0 +1,72 @@
+import com.example.gateway.ErrorResponseWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Outage-mode error bodies, all threads producing 503 responses:
+//   perRequest = old ResponseUtils/fallback path, writeValueAsBytes then wrap
+//   canonical  = ErrorResponseWriter.canonicalBody, shared pre-encoded bytes
+//   streamed   = ErrorResponseWriter.encode, serialized into a pooled Netty buffer
+// Each op releases its buffer as the server would after writing. Run with -prof gc:
+//   java -jar benchmarks.jar ErrorResponseBenchmark -prof gc
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    private static Map<String, Object> body() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", 503);
+        body.put("error", "Service Unavailable");
+        body.put("message", "Circuit open");
+        return body;
+    }
+
+    @Benchmark
+    public int perRequest() throws Exception {
+        DataBuffer buffer = bufferFactory.wrap(objectMapper.writeValueAsBytes(body()));
+        int length = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return length;
+    }
+
+    @Benchmark
+    public int canonical() {
+        DataBuffer buffer = ErrorResponseWriter.canonicalBody(bufferFactory, HttpStatus.SERVICE_UNAVAILABLE, "Circuit open");
+        int length = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return length;
+    }
+
+    @Benchmark
+    public int streamed() throws Exception {
+        DataBuffer buffer = ErrorResponseWriter.encode(bufferFactory, body());
+        int length = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return length;
+    }
+}
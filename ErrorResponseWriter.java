@@ -0,0 +1,96 @@
+package com.example.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Error and fallback bodies for the outage path. Canonical bodies ({"status","error","message"}
+// for a status + fixed reason) are serialized once and every response wraps the same byte[]
+// (wrap does not copy). Other bodies are serialized straight into a buffer from the response's
+// factory (pooled on Netty) instead of going through an intermediate byte[].
+// Reasons must be constants: only the first MAX_CANONICAL combinations are kept.
+public final class ErrorResponseWriter {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_CANONICAL = 256;
+    private static final int INITIAL_BUFFER = 256;
+    private static final byte[] INTERNAL_ERROR = "{\"error\":\"Internal error\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final Map<String, byte[]> canonical = new ConcurrentHashMap<>();
+
+    private ErrorResponseWriter() {
+    }
+
+    public static Mono<Void> writeCanonical(ServerWebExchange exchange, HttpStatus status, String reason) {
+        ServerHttpResponse response = exchange.getResponse();
+        DataBuffer body = canonicalBody(response.bufferFactory(), status, reason);
+        return write(response, status, body);
+    }
+
+    public static Mono<Void> writeJson(ServerWebExchange exchange, Object body, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        DataBuffer buffer;
+        try {
+            buffer = encode(response.bufferFactory(), body);
+        } catch (Exception e) {
+            buffer = response.bufferFactory().wrap(INTERNAL_ERROR);
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return write(response, status, buffer);
+    }
+
+    public static DataBuffer canonicalBody(DataBufferFactory bufferFactory, HttpStatus status, String reason) {
+        String key = status.value() + " " + reason;
+        byte[] bytes = canonical.get(key);
+        if (bytes == null) {
+            bytes = serializeCanonical(status, reason);
+            if (canonical.size() < MAX_CANONICAL) {
+                canonical.putIfAbsent(key, bytes);
+            }
+        }
+        return bufferFactory.wrap(bytes);
+    }
+
+    // The buffer is released here if serialization fails
+    public static DataBuffer encode(DataBufferFactory bufferFactory, Object body) throws Exception {
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_BUFFER);
+        try (OutputStream out = buffer.asOutputStream()) {
+            objectMapper.writeValue(out, body);
+            return buffer;
+        } catch (Exception e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    private static byte[] serializeCanonical(HttpStatus status, String reason) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", reason);
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (Exception e) {
+            return INTERNAL_ERROR;
+        }
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, DataBuffer body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.readableByteCount());
+        return response.writeWith(Mono.just(body));
+    }
+}
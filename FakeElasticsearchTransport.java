@@ -0,0 +1,50 @@
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import co.elastic.clients.transport.Endpoint;
+import co.elastic.clients.transport.TransportOptions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Transport for tests of code built on ElasticsearchClient / ElasticsearchAsyncClient: each
+// request object (BulkRequest, MsearchRequest, ...) goes to the responder, which answers with the
+// response object, completed or still pending. Blocking calls wait on the same future.
+final class FakeElasticsearchTransport implements ElasticsearchTransport {
+
+    private final Function<Object, CompletableFuture<?>> responder;
+    private final JsonpMapper mapper = new JacksonJsonpMapper();
+
+    FakeElasticsearchTransport(Function<Object, CompletableFuture<?>> responder) {
+        this.responder = responder;
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+                                                                  Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                  TransportOptions options) {
+        return performRequestAsync(request, endpoint, options).join();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(RequestT request,
+                                                                                           Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                                           TransportOptions options) {
+        return (CompletableFuture<ResponseT>) responder.apply(request);
+    }
+
+    @Override
+    public JsonpMapper jsonpMapper() {
+        return mapper;
+    }
+
+    @Override
+    public TransportOptions options() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.gateway;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.Connection;
+import reactor.netty.NettyInbound;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Stands in for NettyRoutingFilter in filter chain tests: sets status and headers on the response
+// of the exchange it is given and leaves the body on CLIENT_RESPONSE_CONN_ATTR, where
+// NettyWriteResponseFilter reads it. Call n gets its body after latencies[n] (the last one repeats).
+final class FakeNettyRoutingFilter implements GlobalFilter, Ordered {
+
+    final AtomicInteger calls = new AtomicInteger();
+    private final byte[] body;
+    private final Duration[] latencies;
+
+    FakeNettyRoutingFilter(byte[] body, Duration... latencies) {
+        this.body = body;
+        this.latencies = latencies.length > 0 ? latencies : new Duration[]{Duration.ZERO};
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        int call = calls.getAndIncrement();
+        Duration latency = latencies[Math.min(call, latencies.length - 1)];
+
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentLength(body.length);
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR, new BodyConnection(
+                Mono.delay(latency).thenMany(Flux.defer(() -> Flux.just(Unpooled.wrappedBuffer(body))))));
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private static final class BodyConnection implements Connection, NettyInbound {
+        private final Channel channel = new EmbeddedChannel();
+        private final Flux<ByteBuf> body;
+
+        BodyConnection(Flux<ByteBuf> body) {
+            this.body = body;
+        }
+
+        @Override
+        public Channel channel() {
+            return channel;
+        }
+
+        @Override
+        public NettyInbound inbound() {
+            return this;
+        }
+
+        @Override
+        public ByteBufFlux receive() {
+            return ByteBufFlux.fromInbound(body);
+        }
+
+        @Override
+        public Flux<?> receiveObject() {
+            return body;
+        }
+
+        @Override
+        public NettyInbound withConnection(Consumer<? super Connection> withConnection) {
+            withConnection.accept(this);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.gateway;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.CompositeRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Times every GlobalFilter and WebFilter bean (JwtValidationFilter, AuthGlobalFilter, CorsWebFilter,
+// the gateway's own) and, through the RouteLocator beans, every route GatewayFilter (circuit
+// breaker, concurrency limit, ...) for FilterTimingWebFilter. Orders are kept, so the chain runs
+// exactly as before. Filter beans become JDK proxies implementing all of the bean's interfaces
+// (WeightCalculatorWebFilter stays an ApplicationListener) plus Ordered: inject them by
+// interface, not by concrete class.
+@Component
+public class FilterTimingBeanPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof GlobalFilter
+                || (bean instanceof WebFilter && !(bean instanceof FilterTimingWebFilter))) {
+            ProxyFactory proxy = new ProxyFactory(bean);
+            proxy.setInterfaces(ClassUtils.getAllInterfaces(bean));
+            // @Order on the class would be lost on the proxy, so the order is exposed as Ordered
+            proxy.addInterface(Ordered.class);
+            proxy.addAdvice(new TimingInterceptor(nameOf(bean), orderOf(bean)));
+            return proxy.getProxy(bean.getClass().getClassLoader());
+        }
+        // Composite/caching locators only aggregate the others, which are already wrapped
+        if (bean instanceof RouteLocator locator
+                && !(bean instanceof CachingRouteLocator) && !(bean instanceof CompositeRouteLocator)) {
+            return (RouteLocator) () -> locator.getRoutes().map(FilterTimingBeanPostProcessor::timed);
+        }
+        return bean;
+    }
+
+    private static Route timed(Route route) {
+        List<GatewayFilter> filters = route.getFilters().stream()
+                .map(FilterTimingBeanPostProcessor::timed)
+                .toList();
+        return Route.async()
+                .id(route.getId())
+                .uri(route.getUri())
+                .order(route.getOrder())
+                .asyncPredicate(route.getPredicate())
+                .metadata(route.getMetadata())
+                .filters(filters)
+                .build();
+    }
+
+    private static GatewayFilter timed(GatewayFilter filter) {
+        if (filter instanceof OrderedGatewayFilter ordered) {
+            GatewayFilter delegate = ordered.getDelegate();
+            return new OrderedGatewayFilter(new TimedGatewayFilter(delegate, nameOf(delegate)), ordered.getOrder());
+        }
+        return new TimedGatewayFilter(filter, nameOf(filter));
+    }
+
+    private static int orderOf(Object filter) {
+        return filter instanceof Ordered ordered ? ordered.getOrder()
+                : OrderUtils.getOrder(filter.getClass(), Ordered.LOWEST_PRECEDENCE);
+    }
+
+    // Factory-made filters are lambdas or inner classes: "HedgingGatewayFilterFactory$$Lambda$123" -> "Hedging"
+    static String nameOf(Object filter) {
+        String name = filter.getClass().getSimpleName();
+        if (name.isEmpty() || name.contains("$")) {
+            name = filter.getClass().getName();
+            name = name.substring(name.lastIndexOf('.') + 1);
+            int inner = name.indexOf('$');
+            if (inner > 0) name = name.substring(0, inner);
+        }
+        return name.endsWith("GatewayFilterFactory") ? name.substring(0, name.length() - "GatewayFilterFactory".length()) : name;
+    }
+
+    // filter(exchange, chain) of a GlobalFilter or WebFilter, and getOrder() for the proxy
+    static final class TimingInterceptor implements MethodInterceptor {
+        private final String name;
+        private final int order;
+
+        TimingInterceptor(String name, int order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (invocation.getMethod().getDeclaringClass() == Ordered.class) {
+                return order;
+            }
+            Object[] args = invocation.getArguments();
+            if (!"filter".equals(invocation.getMethod().getName()) || args.length != 2
+                    || !(args[0] instanceof ServerWebExchange exchange)) {
+                return invocation.proceed();
+            }
+
+            FilterTimingWebFilter.Stopwatch stopwatch = FilterTimingWebFilter.Timings.start(exchange, name);
+            if (args[1] instanceof GatewayFilterChain chain) {
+                args[1] = (GatewayFilterChain) next -> Mono.defer(() -> {
+                    stopwatch.stop();
+                    return chain.filter(next);
+                });
+            } else if (args[1] instanceof WebFilterChain chain) {
+                args[1] = (WebFilterChain) next -> Mono.defer(() -> {
+                    stopwatch.stop();
+                    return chain.filter(next);
+                });
+            }
+            @SuppressWarnings("unchecked")
+            Mono<Void> result = (Mono<Void>) invocation.proceed();
+            return result.doFinally(signal -> stopwatch.stop());
+        }
+    }
+
+    static final class TimedGatewayFilter implements GatewayFilter {
+        private final GatewayFilter delegate;
+        private final String name;
+
+        TimedGatewayFilter(GatewayFilter delegate, String name) {
+            this.delegate = delegate;
+            this.name = name;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            FilterTimingWebFilter.Stopwatch stopwatch = FilterTimingWebFilter.Timings.start(exchange, name);
+            // Stop when the downstream chain is subscribed, not when it is assembled
+            return delegate.filter(exchange, next -> Mono.defer(() -> {
+                stopwatch.stop();
+                return chain.filter(next);
+            })).doFinally(signal -> stopwatch.stop());
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -13,13 +13,19 @@ public class GatewayApplication {
 
 
 @Bean
-public RouteLocator customRoutes(RouteLocatorBuilder builder) {
+public RouteLocator customRoutes(RouteLocatorBuilder builder,
+                                 ResponseCacheGatewayFilterFactory responseCache,
+                                 AdaptiveConcurrencyLimitGatewayFilterFactory concurrencyLimit) {
     return builder.routes()
         .route("api_with_cb", r -> r.path("/api/**")
-            .filters(f -> f.circuitBreaker(c -> c
+            .filters(f -> f
+                // Ordered filter, keeps its order ahead of NettyWriteResponseFilter to see the body
+                .filter(responseCache.apply(c -> c.setTtl(Duration.ofSeconds(60)))) // reference data
+                .filter(concurrencyLimit.apply(c -> c.setFallbackUri("forward:/custom-fallback")))
+                .circuitBreaker(c -> c
                 .setName("myCB")
-                .setFallbackUri("forward:/fallback")
-            ))
+                .setFallbackUri("forward:/fallback"))
+            )
 
     
             .uri("lb://MY-SERVICE"))
@@ -27,13 +33,22 @@ public RouteLocator customRoutes(RouteLocatorBuilder builder) {
 }
 
 @Bean
-public RouteLocator customRoutes(RouteLocatorBuilder builder) {
+public RouteLocator customRoutes(RouteLocatorBuilder builder,
+                                 ResponseCacheGatewayFilterFactory responseCache,
+                                 AdaptiveConcurrencyLimitGatewayFilterFactory concurrencyLimit,
+                                 HedgingGatewayFilterFactory hedging,
+                                 @Value("${gateway.hedging.my-service.paths:}") List<String> hedgedPaths) {
     return builder.routes()
         .route("my-service", r -> r
             .path("/myservice/**")
-            .filters(f -> f.circuitBreaker(c -> c
+            .filters(f -> f
+                // Ordered filter, keeps its order ahead of NettyWriteResponseFilter to see the body
+                .filter(responseCache.apply(c -> c.setTtl(Duration.ofSeconds(5)))) // order status, short-lived
+                .filter(concurrencyLimit.apply(c -> c.setFallbackUri("forward:/custom-fallback")))
+                .circuitBreaker(c -> c
                 .setName("myCircuitBreaker")
-                .setFallbackUri("forward:/custom-fallback")))
+                .setFallbackUri("forward:/custom-fallback"))
+                .filter(hedging.apply(c -> c.setPaths(hedgedPaths)))) // idempotent reads only, e.g. /myservice/orders/*
             .uri("lb://MY-SERVICE"))
         .build();
 }
@@ -42,21 +57,23 @@ public RouteLocator customRoutes(RouteLocatorBuilder builder) {
 public class GatewayFallbackController {
 
     @RequestMapping("/custom-fallback")
-    public Mono<ResponseEntity<String>> fallback(ServerWebExchange exchange) {
+    public Mono<Void> fallback(ServerWebExchange exchange) {
         Throwable cause = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
 
-        HttpStatus status;
-        if (cause != null && cause.getClass().getSimpleName().equals("CallNotPermittedException")) {
+        // Bodies are pre-encoded per status + reason, this path is hot during an outage
+        if (cause instanceof AdaptiveConcurrencyLimitGatewayFilterFactory.ConcurrencyLimitExceededException) {
+            // Shed by the adaptive concurrency limit, the request never reached the backend
+            return ErrorResponseWriter.writeCanonical(exchange, HttpStatus.SERVICE_UNAVAILABLE, "Overloaded, retry later");
+        } else if (cause instanceof CallNotPermittedException) {
             // Resilience4j throws this when circuit is open
-            status = HttpStatus.SERVICE_UNAVAILABLE;
-        } else if (cause != null && cause.getClass().getSimpleName().contains("Timeout")) {
-            // Could be TimeoutException from Resilience4j
-            status = HttpStatus.GATEWAY_TIMEOUT;
-        } else {
-            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            return ErrorResponseWriter.writeCanonical(exchange, HttpStatus.SERVICE_UNAVAILABLE, "Circuit open");
+        } else if (cause instanceof TimeoutException
+                || cause instanceof io.netty.handler.timeout.TimeoutException) {
+            // TimeLimiter / Reactor timeout, or Netty's ReadTimeoutException from the HTTP client
+            // (not a java.util.concurrent.TimeoutException)
+            return ErrorResponseWriter.writeCanonical(exchange, HttpStatus.GATEWAY_TIMEOUT, "Upstream timeout");
         }
-
-        return Mono.just(ResponseEntity.status(status).body("Fallback triggered: " + status));
+        return ErrorResponseWriter.writeCanonical(exchange, HttpStatus.INTERNAL_SERVER_ERROR, "Fallback triggered");
     }
 }
 
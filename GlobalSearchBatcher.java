@@ -0,0 +1,158 @@
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Collects global searches arriving within a short window and sends them as one _msearch.
+// A newer search from the same user replaces their pending one; the older caller gets an
+// empty Mono so type-ahead bursts only cost one search per user per window. A search is queued
+// when the Mono is subscribed, and a caller that cancels (disconnect, timeout) before the batch
+// is sent takes its search out of it.
+@Component
+public class GlobalSearchBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalSearchBatcher.class);
+
+    private final ElasticsearchAsyncClient esAsyncClient;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "global-search-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private final Map<String, Pending> latestByUser = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private record Pending(String userKey, MultisearchBody body, Sinks.One<ResponseBody<ElasticSearchOrderDetail>> sink) {}
+
+    public GlobalSearchBatcher(ElasticsearchAsyncClient esAsyncClient,
+                               @Value("${globalsearch.batch.window:5ms}") Duration window,
+                               @Value("${globalsearch.batch.max-size:50}") int maxBatchSize) {
+        this.esAsyncClient = esAsyncClient;
+        this.windowMillis = Math.max(1, window.toMillis());
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // userKey identifies the type-ahead source (user/session); null disables superseding.
+    public Mono<ResponseBody<ElasticSearchOrderDetail>> submit(String userKey, MultisearchBody body) {
+        return Mono.defer(() -> {
+            Pending request = enqueue(userKey, body);
+            return request.sink().asMono().doOnCancel(() -> cancel(request));
+        });
+    }
+
+    private Pending enqueue(String userKey, MultisearchBody body) {
+        Pending request = new Pending(userKey, body, Sinks.one());
+        Pending superseded = null;
+        boolean flushNow;
+
+        synchronized (lock) {
+            if (userKey != null) {
+                superseded = latestByUser.put(userKey, request);
+                if (superseded != null) {
+                    pending.remove(superseded);
+                }
+            }
+            pending.add(request);
+
+            flushNow = pending.size() >= maxBatchSize;
+            if (flushNow) {
+                if (scheduledFlush != null) scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (superseded != null) {
+            // Also releases callers whose search is already in flight; its result is discarded
+            superseded.sink().tryEmitEmpty();
+        }
+        if (flushNow) {
+            scheduler.execute(this::flush);
+        }
+        return request;
+    }
+
+    // No-op once the batch has been sent; the result is then dropped by the cancelled subscriber
+    private void cancel(Pending request) {
+        synchronized (lock) {
+            pending.remove(request);
+            if (request.userKey() != null) {
+                latestByUser.remove(request.userKey(), request);
+            }
+        }
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new ArrayList<>();
+            scheduledFlush = null;
+        }
+        if (batch.isEmpty()) return;
+
+        List<RequestItem> searches = new ArrayList<>(batch.size());
+        for (Pending request : batch) {
+            searches.add(RequestItem.of(i -> i
+                    .header(h -> h.index("order_details_alias"))
+                    .body(request.body())));
+        }
+
+        log.debug("Sending _msearch with {} searches", batch.size());
+        esAsyncClient.msearch(MsearchRequest.of(m -> m.searches(searches)), ElasticSearchOrderDetail.class)
+                .whenComplete((response, error) -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        Pending request = batch.get(i);
+                        if (error != null) {
+                            request.sink().tryEmitError(error);
+                        } else {
+                            MultiSearchResponseItem<ElasticSearchOrderDetail> item = response.responses().get(i);
+                            if (item.isResult()) {
+                                request.sink().tryEmitValue(item.result());
+                            } else {
+                                request.sink().tryEmitError(new IllegalStateException(
+                                        "Search failed: " + item.failure().error().reason()));
+                            }
+                        }
+                        release(request);
+                    }
+                });
+    }
+
+    private void release(Pending request) {
+        if (request.userKey() == null) return;
+        synchronized (lock) {
+            latestByUser.remove(request.userKey(), request);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,113 @@
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalSearchBatcherTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(50);
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final GlobalSearchBatcher batcher = new GlobalSearchBatcher(new ElasticsearchAsyncClient(
+            new FakeElasticsearchTransport(request -> respond((MsearchRequest) request, batchSizes))), WINDOW, 50);
+
+    @AfterEach
+    void shutdown() {
+        batcher.shutdown();
+    }
+
+    private static MultisearchBody search(String term) {
+        return MultisearchBody.of(b -> b.query(q -> q.match(m -> m.field("orderNumber").query(term))));
+    }
+
+    @Test
+    void searchesWithinWindowShareOneMsearch() {
+        Mono<ResponseBody<ElasticSearchOrderDetail>> alice = batcher.submit("alice", search("12"));
+        Mono<ResponseBody<ElasticSearchOrderDetail>> bob = batcher.submit("bob", search("34"));
+
+        List<ResponseBody<ElasticSearchOrderDetail>> results = Mono.zip(alice, bob, List::of).block(Duration.ofSeconds(5));
+
+        assertThat(results).hasSize(2);
+        assertThat(batchSizes).containsExactly(2);
+    }
+
+    @Test
+    void newerSearchFromSameUserSupersedesPendingOne() {
+        Mono<ResponseBody<ElasticSearchOrderDetail>> first = batcher.submit("alice", search("1"));
+        Mono<ResponseBody<ElasticSearchOrderDetail>> second = batcher.submit("alice", search("12"));
+
+        // Subscription order is what counts: first is queued, then replaced by second
+        List<Boolean> present = Mono.zip(first.hasElement(), second.hasElement(), List::of).block(Duration.ofSeconds(5));
+
+        assertThat(present).containsExactly(false, true);
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    void nothingIsQueuedUntilSubscribed() throws InterruptedException {
+        batcher.submit("alice", search("12"));
+
+        Thread.sleep(WINDOW.toMillis() * 3);
+        assertThat(batchSizes).isEmpty();
+    }
+
+    @Test
+    void cancelledSearchIsTakenOutOfTheBatch() {
+        Disposable cancelled = batcher.submit("alice", search("12")).subscribe();
+        cancelled.dispose();
+
+        ResponseBody<ElasticSearchOrderDetail> kept = batcher.submit("bob", search("34")).block(Duration.ofSeconds(5));
+
+        assertThat(kept).isNotNull();
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    void timedOutSearchIsNotSent() throws InterruptedException {
+        batcher.submit("alice", search("12"))
+                .timeout(Duration.ofMillis(5))
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(5));
+
+        Thread.sleep(WINDOW.toMillis() * 3);
+        assertThat(batchSizes).isEmpty();
+    }
+
+    // Answers every _msearch with an empty result per search and records the batch sizes
+    private static CompletableFuture<MsearchResponse<ElasticSearchOrderDetail>> respond(MsearchRequest request,
+                                                                                  List<Integer> batchSizes) {
+        int size = request.searches().size();
+        batchSizes.add(size);
+
+        List<MultiSearchResponseItem<ElasticSearchOrderDetail>> items = IntStream.range(0, size)
+                .mapToObj(i -> new MultiSearchResponseItem.Builder<ElasticSearchOrderDetail>()
+                        .result(new MultiSearchItem.Builder<ElasticSearchOrderDetail>()
+                                .took(1)
+                                .timedOut(false)
+                                .shards(s -> s.total(1).successful(1).failed(0))
+                                .hits(h -> h.hits(List.of()))
+                                .status(200)
+                                .build())
+                        .build())
+                .toList();
+        return CompletableFuture.completedFuture(new MsearchResponse.Builder<ElasticSearchOrderDetail>()
+                .took(1)
+                .responses(items)
+                .build());
+    }
+}
@@ -0,0 +1,183 @@
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// In-process cache for global search results. Keys carry the access scope (GSAM levels,
+// federal access) next to the query, so a result is only ever served to the same scope.
+@Component
+public class GlobalSearchCache {
+
+    private final Cache<Key, ResponseData> results;
+    private final Cache<Key, ResponseData> facets;
+
+    public GlobalSearchCache(MeterRegistry meterRegistry,
+                             @Value("${globalsearch.cache.max-size:10000}") long maxSize,
+                             @Value("${globalsearch.cache.ttl:30s}") Duration ttl,
+                             @Value("${globalsearch.facet-cache.max-size:2000}") long facetMaxSize,
+                             @Value("${globalsearch.facet-cache.ttl:60s}") Duration facetTtl) {
+        this.results = build(maxSize, ttl);
+        this.facets = build(facetMaxSize, facetTtl);
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "globalSearch.results");
+        CaffeineCacheMetrics.monitor(meterRegistry, facets, "globalSearch.facets");
+    }
+
+    // Cached responses are shared between callers and must not be mutated.
+    // Failed searches are never cached.
+    public ResponseData get(Key key, Supplier<ResponseData> loader) {
+        return getOrLoad(results, key, loader);
+    }
+
+    public Mono<ResponseData> getReactive(Key key, Supplier<Mono<ResponseData>> loader) {
+        ResponseData cached = results.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return loader.get().doOnNext(loaded -> {
+            if (loaded.getError() == null) {
+                results.put(key, loaded);
+            }
+        });
+    }
+
+    public ResponseData getFacets(Key key, Supplier<ResponseData> loader) {
+        return getOrLoad(facets, key, loader);
+    }
+
+    // Invalidation hooks, e.g. after a batch purge or for a single owner's orders
+    public void invalidateAll() {
+        results.invalidateAll();
+        facets.invalidateAll();
+    }
+
+    public void invalidateIf(Predicate<Key> predicate) {
+        results.asMap().keySet().removeIf(predicate);
+        facets.asMap().keySet().removeIf(predicate);
+    }
+
+    private static Cache<Key, ResponseData> build(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static ResponseData getOrLoad(Cache<Key, ResponseData> cache, Key key, Supplier<ResponseData> loader) {
+        ResponseData cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        ResponseData loaded = loader.get();
+        if (loaded.getError() == null) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public static Key keyOf(String gsamSensitivity, String isGsamCheckRequired, String federalAccessStatus,
+                            String searchId, GlobalSearchRequest globalSearchRequest, String matchType) {
+
+        boolean gsamCheck = "true".equalsIgnoreCase(isGsamCheckRequired);
+        return new Key(
+                normalizeSearchId(searchId),
+                "exact".equalsIgnoreCase(matchType) ? "exact" : normalize(matchType),
+                gsamCheck,
+                gsamCheck ? canonicalLevels(gsamSensitivity) : List.of(),
+                "No".equalsIgnoreCase(federalAccessStatus),
+                canonicalFilters(globalSearchRequest.getFilters()),
+                canonicalDates(globalSearchRequest.getDates()),
+                StringUtils.hasText(globalSearchRequest.getOwner()) ? globalSearchRequest.getOwner() : "",
+                false);
+    }
+
+    public record Key(String searchId,
+                      String matchType,
+                      boolean gsamCheck,
+                      List<String> gsamLevels,
+                      boolean federalRestricted,
+                      Map<String, List<String>> filters,
+                      Map<String, String> dates,
+                      String owner,
+                      boolean hitsOnly) {
+
+        // Same query without aggregations, cached separately from the full response
+        public Key withHitsOnly() {
+            return new Key(searchId, matchType, gsamCheck, gsamLevels, federalRestricted, filters, dates, owner, true);
+        }
+    }
+
+    // Callers build the query from this same value, see NewSearch
+    public static String normalizeSearchId(String searchId) {
+        return searchId == null ? "" : searchId.trim();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    static List<String> canonicalLevels(String gsamSensitivity) {
+        if (gsamSensitivity == null) return List.of();
+        return Arrays.stream(gsamSensitivity.split(","))
+                .map(String::trim)
+                .filter(level -> !level.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static Map<String, List<String>> canonicalFilters(GlobalSearchRequest.Filters filters) {
+        Map<String, List<String>> canonical = new TreeMap<>();
+        if (filters == null) return canonical;
+
+        putValues(canonical, "fulfillmentStatus", filters.getFulfillmentStatus());
+        putValues(canonical, "crStatus", filters.getCrStatus());
+        putValues(canonical, "centerName", filters.getCenterName());
+        putValues(canonical, "source", filters.getSource());
+        putValues(canonical, "workType", filters.getWorkType());
+        putValues(canonical, "queueName", filters.getQueueName());
+        putValues(canonical, "orderActivity", filters.getOrderActivity());
+        putValues(canonical, "taskName", filters.getTaskName());
+        putValues(canonical, "productType", filters.getProductType());
+        return canonical;
+    }
+
+    private static void putValues(Map<String, List<String>> canonical, String field, List<String> values) {
+        if (values == null || values.isEmpty()) return;
+        canonical.put(field, values.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    private static Map<String, String> canonicalDates(GlobalSearchRequest.Dates dates) {
+        Map<String, String> canonical = new TreeMap<>();
+        if (dates == null) return canonical;
+
+        putRange(canonical, "dueDate", dates.getDueDate());
+        putRange(canonical, "orderSubmitDate", dates.getConfirmDate());
+        putRange(canonical, "orderCreationDate", dates.getCreationDate());
+        return canonical;
+    }
+
+    private static void putRange(Map<String, String> canonical, String field, DateRange range) {
+        if (range == null || !range.isValid()) return;
+        canonical.put(field, range.getStartDate() + ".." + range.getEndDate());
+    }
+}
@@ -0,0 +1,125 @@
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+// Latency breakdown for global search (build, ES took vs round trip, mapping, hit count) and the
+// N slowest normalized queries, readable at /actuator/slowsearches. Failed and timed-out searches
+// are recorded too (build and round trip, outcome=error|timeout), so slow failures are not hidden.
+@Component
+@Endpoint(id = "slowsearches")
+public class GlobalSearchMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final int slowQueryCapacity;
+
+    // Min-heap on duration: the head is the fastest of the slow ones and is evicted first
+    private final PriorityQueue<SlowQuery> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowQuery::roundTripMillis));
+
+    public record SlowQuery(String query, long roundTripMillis, long tookMillis, int hits, Instant at) {}
+
+    public GlobalSearchMetrics(MeterRegistry meterRegistry,
+                               @Value("${globalsearch.metrics.slow-query-capacity:50}") int slowQueryCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryCapacity = slowQueryCapacity;
+    }
+
+    public void record(GlobalSearchCache.Key key, long buildNanos, long roundTripNanos, long tookMillis,
+                       long mapNanos, int hits) {
+        Tags tags = tagsOf(key).and("outcome", "success");
+
+        timer("globalsearch.query.build", tags).record(buildNanos, TimeUnit.NANOSECONDS);
+        timer("globalsearch.es.roundtrip", tags).record(roundTripNanos, TimeUnit.NANOSECONDS);
+        timer("globalsearch.es.took", tags).record(tookMillis, TimeUnit.MILLISECONDS);
+        timer("globalsearch.response.map", tags).record(mapNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("globalsearch.response.hits")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(hits);
+
+        addSlow(key, roundTripNanos, tookMillis, hits);
+    }
+
+    // outcome is "error" or "timeout"; roundTripNanos is the time until the failure
+    public void recordFailure(GlobalSearchCache.Key key, long buildNanos, long roundTripNanos, String outcome) {
+        Tags tags = tagsOf(key).and("outcome", outcome);
+
+        timer("globalsearch.query.build", tags).record(buildNanos, TimeUnit.NANOSECONDS);
+        timer("globalsearch.es.roundtrip", tags).record(roundTripNanos, TimeUnit.NANOSECONDS);
+        addSlow(key, roundTripNanos, -1, 0);
+    }
+
+    private void addSlow(GlobalSearchCache.Key key, long roundTripNanos, long tookMillis, int hits) {
+        long roundTripMillis = TimeUnit.NANOSECONDS.toMillis(roundTripNanos);
+        synchronized (slowest) {
+            if (slowest.size() < slowQueryCapacity) {
+                slowest.add(new SlowQuery(normalize(key), roundTripMillis, tookMillis, hits, Instant.now()));
+            } else if (slowest.peek().roundTripMillis() < roundTripMillis) {
+                slowest.poll();
+                slowest.add(new SlowQuery(normalize(key), roundTripMillis, tookMillis, hits, Instant.now()));
+            }
+        }
+    }
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        List<SlowQuery> snapshot;
+        synchronized (slowest) {
+            snapshot = new ArrayList<>(slowest);
+        }
+        snapshot.sort(Comparator.comparingLong(SlowQuery::roundTripMillis).reversed());
+        return snapshot;
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Bounded tags only: matchType is request input and filter combinations multiply, so both
+    // are bucketed (which filters were used is in the slow query list)
+    private static Tags tagsOf(GlobalSearchCache.Key key) {
+        int filters = key.filters().size() + key.dates().size() + (key.owner().isEmpty() ? 0 : 1);
+
+        return Tags.of(
+                "matchType", matchTypeOf(key.matchType()),
+                "filters", filters >= 3 ? "3+" : String.valueOf(filters),
+                "access", (key.federalRestricted() ? "nonFederal" : "all") + (key.gsamCheck() ? "+gsam" : ""),
+                "aggregations", String.valueOf(!key.hitsOnly()));
+    }
+
+    // The modes the query builders know; anything else searches as the default
+    private static String matchTypeOf(String matchType) {
+        if ("exact".equalsIgnoreCase(matchType)) return "exact";
+        if ("substring".equalsIgnoreCase(matchType)) return "substring";
+        return "default";
+    }
+
+    // Query shape without user data: search term length and value counts per filter
+    private static String normalize(GlobalSearchCache.Key key) {
+        StringBuilder sb = new StringBuilder()
+                .append("matchType=").append(matchTypeOf(key.matchType()))
+                .append(" searchId=?(").append(key.searchId().length()).append(')');
+        key.filters().forEach((field, values) -> sb.append(' ').append(field).append("=?[").append(values.size()).append(']'));
+        key.dates().keySet().forEach(field -> sb.append(' ').append(field).append("=?..?"));
+        if (!key.owner().isEmpty()) sb.append(" owner=?");
+        if (key.gsamCheck()) sb.append(" gsam=?[").append(key.gsamLevels().size()).append(']');
+        if (key.federalRestricted()) sb.append(" nonFederal");
+        if (!key.hitsOnly()) sb.append(" +aggs");
+        return sb.toString();
+    }
+}
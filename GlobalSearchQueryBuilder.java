@@ -0,0 +1,241 @@
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.search.Highlight;
+import co.elastic.clients.elasticsearch.core.search.HighlightField;
+import co.elastic.clients.elasticsearch.core.search.HighlighterType;
+import co.elastic.clients.json.JsonData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Builds the global search query. Everything derived from EZStatusUtil (field lists, .keyword
+// names, highlight config, aggregations, access filters) is computed once and reused; only the
+// per-request values are spliced in.
+@Component
+public class GlobalSearchQueryBuilder {
+
+    private static final int MAX_ACCESS_PROFILES = 1000;
+
+    private static final List<Map.Entry<String, Function<GlobalSearchRequest.Filters, List<String>>>> STRING_FILTERS = List.of(
+            Map.entry("fulfillmentStatus.keyword", GlobalSearchRequest.Filters::getFulfillmentStatus),
+            Map.entry("crStatus.keyword", GlobalSearchRequest.Filters::getCrStatus),
+            Map.entry("centerName.keyword", GlobalSearchRequest.Filters::getCenterName),
+            Map.entry("source.keyword", GlobalSearchRequest.Filters::getSource),
+            Map.entry("workType.keyword", GlobalSearchRequest.Filters::getWorkType),
+            Map.entry("queueName.keyword", GlobalSearchRequest.Filters::getQueueName),
+            Map.entry("orderActivity.keyword", GlobalSearchRequest.Filters::getOrderActivity),
+            Map.entry("taskName.keyword", GlobalSearchRequest.Filters::getTaskName),
+            Map.entry("productType.keyword", GlobalSearchRequest.Filters::getProductType));
+
+    private final List<String> searchFields;
+    private final List<String> keywordFields;
+    private final List<String> ngramFields;
+    private final Highlight highlight;
+    private final Map<String, Aggregation> aggregations;
+
+    // Prebuilt access filter per profile (gsamSensitivity + federalAccessStatus), so the clause is
+    // not rebuilt per request. This only saves client-side work: Elasticsearch's query cache keys
+    // on the serialized query, not on the Java object.
+    private final Map<AccessProfile, Optional<Query>> accessFilters = new ConcurrentHashMap<>();
+
+    private record AccessProfile(boolean federalRestricted, boolean gsamCheck, List<String> gsamLevels) {}
+
+    public GlobalSearchQueryBuilder(@Value("${globalsearch.facets.bucket-size:100}") int facetBucketSize) {
+        this.searchFields = List.copyOf(EZStatusUtil.getGlobalSearchMap().keySet());
+        this.keywordFields = searchFields.stream().map(f -> f + ".keyword").toList();
+        this.ngramFields = searchFields.stream().map(f -> f + ".ngram").toList();
+
+        Map<String, HighlightField> highlightFields = new LinkedHashMap<>();
+        searchFields.forEach(f -> highlightFields.put(f, HighlightField.of(hf -> hf)));
+        this.highlight = Highlight.of(h -> h
+                .type(HighlighterType.Unified)
+                .fields(highlightFields)
+                .preTags("<strong>")
+                .postTags("</strong>"));
+
+        Map<String, Aggregation> aggs = new LinkedHashMap<>();
+        EZStatusUtil.getAggregatedDataMap().forEach((aggName, fieldName) -> aggs.put(aggName, Aggregation.of(a -> a
+                .terms(t -> t
+                        .field(fieldName + ".keyword")
+                        .size(facetBucketSize)))));
+        this.aggregations = Map.copyOf(aggs);
+    }
+
+    public Query buildQuery(String gsamSensitivity, String isGsamCheckRequired, String federalAccessStatus,
+                            String searchId, GlobalSearchRequest globalSearchRequest, String matchType) {
+
+        BoolQuery.Builder mainQuery = QueryBuilders.bool();
+
+        // 1. Base Search Query ==============================================
+        applySearchQuery(mainQuery, searchId, matchType);
+
+        // 2-5. Non-relevance predicates go to filter context: unscored and cacheable
+
+        // 2. Access Control Filters =========================================
+        applyAccessControlFilters(mainQuery, federalAccessStatus, gsamSensitivity, isGsamCheckRequired);
+
+        // 3. String Filters ================================================
+        applyStringFilters(mainQuery, globalSearchRequest.getFilters());
+
+        // 4. Date Filters ==================================================
+        applyDateRangeFilters(mainQuery, globalSearchRequest.getDates());
+
+        // 5. Owner Filter ==================================================
+        if (StringUtils.hasText(globalSearchRequest.getOwner())) {
+            mainQuery.filter(QueryBuilders.term(t -> t
+                    .field("userName.keyword")
+                    .value(globalSearchRequest.getOwner())));
+        }
+
+        return mainQuery.build()._toQuery();
+    }
+
+    // Immutable, safe to share between requests
+    public Highlight highlight() {
+        return highlight;
+    }
+
+    public Map<String, Aggregation> aggregations() {
+        return aggregations;
+    }
+
+    public List<String> searchFields() {
+        return searchFields;
+    }
+
+    public List<String> keywordFields() {
+        return keywordFields;
+    }
+
+    private void applySearchQuery(BoolQuery.Builder mainQuery, String searchTerm, String matchType) {
+        if (!StringUtils.hasText(searchTerm)) return;
+
+        BoolQuery.Builder searchBool = QueryBuilders.bool();
+
+        if ("exact".equalsIgnoreCase(matchType)) {
+            // Exact match using .keyword fields
+            searchBool.must(QueryBuilders.multiMatch(m -> m
+                    .query(searchTerm)
+                    .fields(keywordFields)));
+        } else if ("substring".equalsIgnoreCase(matchType) && searchTerm.trim().length() >= 3) {
+            // Trigram subfield, see the substring_analyzer mapping in Search.java
+            String term = searchTerm.trim();
+            ngramFields.forEach(field -> searchBool.should(QueryBuilders.matchPhrase(m -> m
+                    .field(field)
+                    .query(term))));
+        } else if ("substring".equalsIgnoreCase(matchType)) {
+            // Shorter than one trigram: still a substring match, as a wildcard on the keywords
+            String pattern = "*" + searchTerm.trim() + "*";
+            keywordFields.forEach(field -> searchBool.should(QueryBuilders.wildcard(w -> w
+                    .field(field)
+                    .value(pattern)
+                    .caseInsensitive(true))));
+        } else {
+            // Prefix search with boosted exact matches
+            searchBool.should(QueryBuilders.multiMatch(m -> m
+                    .query(searchTerm)
+                    .fields(searchFields)
+                    .type(TextQueryType.BoolPrefix)));
+
+            searchBool.should(QueryBuilders.queryString(q -> q
+                    .query(searchTerm + "*")
+                    .fields(searchFields)));
+        }
+
+        mainQuery.must(searchBool.build()._toQuery());
+    }
+
+    private void applyAccessControlFilters(BoolQuery.Builder mainQuery, String federalAccess,
+                                           String gsamLevels, String gsamCheckRequired) {
+
+        boolean gsamCheck = "true".equalsIgnoreCase(gsamCheckRequired);
+        AccessProfile profile = new AccessProfile(
+                "No".equalsIgnoreCase(federalAccess),
+                gsamCheck,
+                gsamCheck ? GlobalSearchCache.canonicalLevels(gsamLevels) : List.of());
+
+        Optional<Query> accessFilter = accessFilters.get(profile);
+        if (accessFilter == null) {
+            accessFilter = buildAccessFilter(profile);
+            if (accessFilters.size() < MAX_ACCESS_PROFILES) {
+                accessFilters.putIfAbsent(profile, accessFilter);
+            }
+        }
+
+        accessFilter.ifPresent(mainQuery::filter);
+    }
+
+    private Optional<Query> buildAccessFilter(AccessProfile profile) {
+        if (!profile.federalRestricted() && !profile.gsamCheck()) return Optional.empty();
+
+        BoolQuery.Builder accessQuery = QueryBuilders.bool();
+
+        // Federal access filter
+        if (profile.federalRestricted()) {
+            accessQuery.mustNot(QueryBuilders.term(t -> t
+                    .field("federalFlag.keyword")
+                    .value("FEDERAL")));
+        }
+
+        // GSAM sensitivity filter: allowed levels in one terms lookup, or missing field
+        if (profile.gsamCheck()) {
+            accessQuery.filter(QueryBuilders.bool(b -> b
+                    .should(QueryBuilders.terms(t -> t
+                            .field("gsamSensitivityLevel.keyword")
+                            .terms(terms -> terms.value(profile.gsamLevels().stream()
+                                    .map(FieldValue::of)
+                                    .collect(Collectors.toList())))))
+                    .should(QueryBuilders.bool(nb -> nb
+                            .mustNot(QueryBuilders.exists(e -> e.field("gsamSensitivityLevel")))))));
+        }
+
+        return Optional.of(accessQuery.build()._toQuery());
+    }
+
+    private void applyStringFilters(BoolQuery.Builder mainQuery, GlobalSearchRequest.Filters filters) {
+        if (filters == null) return;
+
+        for (Map.Entry<String, Function<GlobalSearchRequest.Filters, List<String>>> entry : STRING_FILTERS) {
+            List<String> values = entry.getValue().apply(filters);
+            if (values == null || values.isEmpty()) continue;
+
+            List<FieldValue> fieldValues = new ArrayList<>(values.size());
+            for (String value : values) {
+                fieldValues.add(FieldValue.of(value));
+            }
+            mainQuery.filter(QueryBuilders.terms(t -> t
+                    .field(entry.getKey())
+                    .terms(terms -> terms.value(fieldValues))));
+        }
+    }
+
+    private void applyDateRangeFilters(BoolQuery.Builder mainQuery, GlobalSearchRequest.Dates dates) {
+        if (dates == null) return;
+
+        applySingleDateFilter(mainQuery, dates.getDueDate(), "dueDate");
+        applySingleDateFilter(mainQuery, dates.getConfirmDate(), "orderSubmitDate");
+        applySingleDateFilter(mainQuery, dates.getCreationDate(), "orderCreationDate");
+    }
+
+    private void applySingleDateFilter(BoolQuery.Builder mainQuery, DateRange range, String field) {
+        if (range == null || !range.isValid()) return;
+
+        mainQuery.filter(QueryBuilders.range(r -> r
+                .field(field)
+                .gte(JsonData.of(range.getStartDate()))
+                .lte(JsonData.of(range.getEndDate()))));
+    }
+}
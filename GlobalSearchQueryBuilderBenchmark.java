@@ -0,0 +1,124 @@
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.search.Highlight;
+import co.elastic.clients.elasticsearch.core.search.HighlightField;
+import co.elastic.clients.elasticsearch.core.search.HighlighterType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Request construction cost, old inline path vs GlobalSearchQueryBuilder.
+// Run with the GC profiler to see allocations per op:
+//   java -jar benchmarks.jar GlobalSearchQueryBuilderBenchmark -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalSearchQueryBuilderBenchmark {
+
+    private GlobalSearchQueryBuilder queryBuilder;
+    private GlobalSearchRequest request;
+
+    @Setup
+    public void setup() {
+        queryBuilder = new GlobalSearchQueryBuilder(100);
+
+        GlobalSearchRequest.Filters filters = new GlobalSearchRequest.Filters();
+        filters.setCrStatus(List.of("OPEN", "PENDING"));
+        filters.setWorkType(List.of("INSTALL"));
+        filters.setProductType(List.of("ETHERNET", "WAVELENGTH", "IP"));
+
+        request = new GlobalSearchRequest();
+        request.setFilters(filters);
+        request.setOwner("jdoe");
+    }
+
+    @Benchmark
+    public SearchRequest inline() {
+        BoolQuery.Builder mainQuery = QueryBuilders.bool();
+
+        mainQuery.must(QueryBuilders.bool(b -> b
+                .should(QueryBuilders.multiMatch(m -> m
+                        .query("CKT123")
+                        .fields(List.copyOf(EZStatusUtil.getGlobalSearchMap().keySet()))
+                        .type(TextQueryType.BoolPrefix)))
+                .should(QueryBuilders.queryString(q -> q
+                        .query("CKT123*")
+                        .fields(List.copyOf(EZStatusUtil.getGlobalSearchMap().keySet()))))));
+
+        mainQuery.mustNot(QueryBuilders.term(t -> t.field("federalFlag.keyword").value("FEDERAL")));
+        BoolQuery.Builder gsamQuery = QueryBuilders.bool();
+        Arrays.stream("L1,L2,L3".split(","))
+                .forEach(level -> gsamQuery.should(QueryBuilders.term(t -> t
+                        .field("gsamSensitivityLevel.keyword")
+                        .value(level))));
+        gsamQuery.should(QueryBuilders.bool(b -> b
+                .mustNot(QueryBuilders.exists(e -> e.field("gsamSensitivityLevel")))));
+        mainQuery.must(gsamQuery.build()._toQuery());
+
+        GlobalSearchRequest.Filters filters = request.getFilters();
+        Stream.of(
+                Map.entry(filters.getCrStatus(), "crStatus.keyword"),
+                Map.entry(filters.getWorkType(), "workType.keyword"),
+                Map.entry(filters.getProductType(), "productType.keyword")
+        ).forEach(entry -> mainQuery.must(QueryBuilders.terms(t -> t
+                .field(entry.getValue())
+                .terms(terms -> terms.value(entry.getKey().stream()
+                        .map(FieldValue::of)
+                        .collect(Collectors.toList()))))));
+
+        mainQuery.must(QueryBuilders.term(t -> t.field("userName.keyword").value(request.getOwner())));
+
+        Highlight highlight = Highlight.of(h -> h
+                .type(HighlighterType.Unified)
+                .fields(EZStatusUtil.getGlobalSearchMap().keySet().stream()
+                        .collect(Collectors.toMap(Function.identity(), f -> HighlightField.of(hf -> hf))))
+                .preTags("<strong>")
+                .postTags("</strong>"));
+
+        Map<String, Aggregation> aggregations = EZStatusUtil.getAggregatedDataMap().entrySet().stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> Aggregation.of(a -> a.terms(t -> t.field(entry.getValue() + ".keyword").size(100)))));
+
+        return new SearchRequest.Builder()
+                .index("order_details_alias")
+                .query(mainQuery.build()._toQuery())
+                .size(1000)
+                .highlight(highlight)
+                .aggregations(aggregations)
+                .build();
+    }
+
+    @Benchmark
+    public SearchRequest prebuilt() {
+        return new SearchRequest.Builder()
+                .index("order_details_alias")
+                .query(queryBuilder.buildQuery("L1,L2,L3", "true", "No", "CKT123", request, "partial"))
+                .size(1000)
+                .highlight(queryBuilder.highlight())
+                .aggregations(queryBuilder.aggregations())
+                .build();
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.gateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Opt-in request hedging. Only requests whose method is in methods and whose path matches one of
+// the route's paths are hedged; with no paths configured the filter passes everything through.
+//
+// A hedged request runs the rest of the route chain (auth, load balancer, Netty routing with the
+// gateway's HttpClient timeouts) as an attempt with its own attributes and a buffered response.
+// If it has not answered after the route's observed p95 latency, or fails before that, a second
+// attempt goes through the chain again; the load balancer picks the next instance. The first
+// attempt to have a complete response (status, headers and the whole body) is copied to the real
+// response and the other is cancelled. If both fail, the primary's error is propagated.
+//
+// Hedges are paid from a token bucket: every hedged-eligible request adds budgetRatio tokens (up
+// to budgetCapacity) and a hedge costs one, so at most ~budgetRatio extra load reaches the service.
+// Place it after circuitBreaker so the breaker sees the hedged outcome, not each attempt. That
+// puts it after NettyWriteResponseFilter too, so each attempt reads its upstream body off the
+// routed connection itself and takes the connection with it; the outer NettyWriteResponseFilter
+// then has nothing to write and the real response is written once, by the winner.
+// gateway.hedge{route,result=sent|won|no_budget}.
+@Component
+public class HedgingGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteState> states = new ConcurrentHashMap<>();
+
+    public static class Config {
+        private List<String> paths = List.of();
+        private Set<HttpMethod> methods = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+        private Duration minDelay = Duration.ofMillis(20);
+        private Duration initialDelay = Duration.ofMillis(200);
+        private double budgetRatio = 0.1;
+        private double budgetCapacity = 10;
+
+        public List<String> getPaths() { return paths; }
+        public Config setPaths(List<String> paths) { this.paths = paths; return this; }
+        public Set<HttpMethod> getMethods() { return methods; }
+        public Config setMethods(Set<HttpMethod> methods) { this.methods = methods; return this; }
+        public Duration getMinDelay() { return minDelay; }
+        public Config setMinDelay(Duration minDelay) { this.minDelay = minDelay; return this; }
+        public Duration getInitialDelay() { return initialDelay; }
+        public Config setInitialDelay(Duration initialDelay) { this.initialDelay = initialDelay; return this; }
+        public double getBudgetRatio() { return budgetRatio; }
+        public Config setBudgetRatio(double budgetRatio) { this.budgetRatio = budgetRatio; return this; }
+        public double getBudgetCapacity() { return budgetCapacity; }
+        public Config setBudgetCapacity(double budgetCapacity) { this.budgetCapacity = budgetCapacity; return this; }
+    }
+
+    private record Attempt(AttemptExchange exchange, boolean hedge) {}
+
+    public HedgingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        return (exchange, chain) -> {
+            PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+            if (!config.getMethods().contains(exchange.getRequest().getMethod())
+                    || patterns.stream().noneMatch(pattern -> pattern.matches(path))) {
+                return chain.filter(exchange);
+            }
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+            RouteState state = states.computeIfAbsent(routeId, id -> new RouteState(config));
+            state.budget.deposit();
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+
+            Mono<Attempt> primary = attempt(exchange, chain, state, false)
+                    .doOnError(e -> {
+                        primaryError.set(e);
+                        primaryFailed.tryEmitEmpty(); // don't wait out the delay, hedge now
+                    });
+            Mono<Attempt> hedge = Mono.firstWithSignal(Mono.delay(state.latency.hedgeDelay()).then(), primaryFailed.asMono())
+                    .then(Mono.defer(() -> {
+                        if (!state.budget.tryWithdraw()) {
+                            meterRegistry.counter("gateway.hedge", "route", routeId, "result", "no_budget").increment();
+                            return Mono.<Attempt>empty(); // leave it to the primary
+                        }
+                        meterRegistry.counter("gateway.hedge", "route", routeId, "result", "sent").increment();
+                        return attempt(exchange, chain, state, true);
+                    }));
+
+            // First value wins; an error only counts once no attempt can produce a response
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(e -> primaryError.get() != null ? primaryError.get() : e)
+                    .flatMap(winner -> {
+                        if (winner.hedge()) {
+                            meterRegistry.counter("gateway.hedge", "route", routeId, "result", "won").increment();
+                        }
+                        return write(exchange, winner.exchange());
+                    });
+        };
+    }
+
+    // Errors and timeouts are sampled too, and a cancelled primary counts with the time it had
+    // run, so a slow or failing instance raises the delay instead of hiding from it
+    private Mono<Attempt> attempt(ServerWebExchange exchange, GatewayFilterChain chain, RouteState state, boolean hedge) {
+        return Mono.defer(() -> {
+            AttemptExchange attemptExchange = new AttemptExchange(exchange);
+            long start = System.nanoTime();
+            return chain.filter(attemptExchange)
+                    .then(Mono.defer(() -> readBody(attemptExchange)))
+                    .then(Mono.fromCallable(() -> new Attempt(attemptExchange, hedge)))
+                    .doFinally(signal -> {
+                        if (signal != SignalType.CANCEL || !hedge) {
+                            state.latency.record(System.nanoTime() - start);
+                        }
+                        if (signal != SignalType.ON_COMPLETE) {
+                            attemptExchange.release();
+                        }
+                    });
+        });
+    }
+
+    // What NettyWriteResponseFilter does after routing, per attempt. Without a connection (a
+    // forward, or a filter that wrote the response itself) the body is already buffered.
+    private static Mono<Void> readBody(AttemptExchange attempt) {
+        Connection connection = (Connection) attempt.getAttributes().remove(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection == null) {
+            return Mono.empty();
+        }
+        attempt.connection = connection;
+        DataBufferFactory bufferFactory = attempt.response.bufferFactory();
+        return attempt.response.writeWith(connection.inbound().receive().retain()
+                .map(byteBuf -> wrap(byteBuf, bufferFactory)));
+    }
+
+    private static DataBuffer wrap(ByteBuf byteBuf, DataBufferFactory bufferFactory) {
+        if (bufferFactory instanceof NettyDataBufferFactory netty) {
+            return netty.wrap(byteBuf);
+        }
+        DataBuffer buffer = bufferFactory.allocateBuffer(byteBuf.readableBytes());
+        buffer.write(byteBuf.nioBuffer());
+        byteBuf.release();
+        return buffer;
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, AttemptExchange winner) {
+        exchange.getAttributes().putAll(winner.getAttributes());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(winner.response.getStatusCode());
+        response.getHeaders().putAll(winner.response.getHeaders());
+        DataBuffer body = winner.response.body;
+        return body == null ? response.setComplete() : response.writeWith(Mono.just(body));
+    }
+
+    // The rest of the chain runs against this: own attributes (routing state such as the chosen
+    // instance and "already routed" is per attempt) and a response that is buffered, not sent
+    static final class AttemptExchange extends ServerWebExchangeDecorator {
+        private final Map<String, Object> attributes;
+        private final BufferedResponse response;
+        private volatile Connection connection;
+
+        AttemptExchange(ServerWebExchange delegate) {
+            super(delegate);
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+            this.response = new BufferedResponse(delegate.getResponse().bufferFactory());
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        // A loser cancelled mid-body leaves its connection unusable, close it
+        void release() {
+            response.release();
+            Connection current = connection;
+            if (current != null && !current.isDisposed()) {
+                current.dispose();
+            }
+        }
+    }
+
+    static final class BufferedResponse extends AbstractServerHttpResponse {
+        private volatile DataBuffer body;
+
+        BufferedResponse(DataBufferFactory bufferFactory) {
+            super(bufferFactory);
+        }
+
+        @Override
+        public <T> T getNativeResponse() {
+            throw new IllegalStateException("Hedge attempts have no native response");
+        }
+
+        @Override
+        protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body).doOnNext(joined -> this.body = joined).then();
+        }
+
+        @Override
+        protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWithInternal(Flux.from(body).concatMap(Flux::from));
+        }
+
+        @Override
+        protected void applyStatusCode() {
+        }
+
+        @Override
+        protected void applyHeaders() {
+        }
+
+        @Override
+        protected void applyCookies() {
+        }
+
+        void release() {
+            DataBuffer buffer = body;
+            body = null;
+            if (buffer != null) DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static final class RouteState {
+        final LatencyTracker latency;
+        final RetryBudget budget;
+
+        RouteState(Config config) {
+            this.latency = new LatencyTracker(config.getInitialDelay(), config.getMinDelay());
+            this.budget = new RetryBudget(config.getBudgetRatio(), config.getBudgetCapacity());
+        }
+    }
+
+    // p95 over the last SIZE responses, recomputed every RECOMPUTE_EVERY samples
+    static final class LatencyTracker {
+        private static final int SIZE = 1024;
+        private static final int RECOMPUTE_EVERY = 64;
+
+        private final long[] samples = new long[SIZE];
+        private final long minDelayNanos;
+        private int count;
+        private volatile long p95Nanos;
+
+        LatencyTracker(Duration initialDelay, Duration minDelay) {
+            this.p95Nanos = initialDelay.toNanos();
+            this.minDelayNanos = minDelay.toNanos();
+        }
+
+        synchronized void record(long nanos) {
+            samples[count++ % SIZE] = nanos;
+            if (count % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, Math.min(count, SIZE));
+                Arrays.sort(sorted);
+                p95Nanos = sorted[(int) (sorted.length * 0.95)];
+            }
+        }
+
+        Duration hedgeDelay() {
+            return Duration.ofNanos(Math.max(minDelayNanos, p95Nanos));
+        }
+    }
+
+    // Token bucket in thousandths of a token
+    static final class RetryBudget {
+        private final long deposit;
+        private final long capacity;
+        private final AtomicLong tokens = new AtomicLong();
+
+        RetryBudget(double ratio, double capacity) {
+            this.deposit = (long) (ratio * 1000);
+            this.capacity = (long) (capacity * 1000);
+        }
+
+        void deposit() {
+            tokens.getAndUpdate(current -> Math.min(capacity, current + deposit));
+        }
+
+        boolean tryWithdraw() {
+            while (true) {
+                long current = tokens.get();
+                if (current < 1000) return false;
+                if (tokens.compareAndSet(current, current - 1000)) return true;
+            }
+        }
+    }
+}
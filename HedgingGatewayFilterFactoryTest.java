@@ -0,0 +1,88 @@
+package com.example.gateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.FilteringWebHandler;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingGatewayFilterFactoryTest {
+
+    private static final byte[] BODY = "{\"orderId\":42,\"status\":\"OPEN\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Route as GatewayConfig builds it: hedging at the default route filter order, so after
+    // NettyWriteResponseFilter, and the upstream body left on the connection by routing
+    private MockServerWebExchange get(String path, FakeNettyRoutingFilter routing) {
+        Route route = Route.async()
+                .id("my-service")
+                .uri("lb://MY-SERVICE")
+                .predicate(exchange -> true)
+                .filter(new OrderedGatewayFilter(new HedgingGatewayFilterFactory(meterRegistry).apply(c -> c
+                        .setPaths(List.of("/myservice/orders/*"))
+                        .setInitialDelay(Duration.ofMillis(20))
+                        .setBudgetRatio(1)), 0))
+                .build();
+        FilteringWebHandler handler = new FilteringWebHandler(List.of(new NettyWriteResponseFilter(List.of()), routing));
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        handler.handle(exchange).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.counter("gateway.hedge", "route", "my-service", "result", result).count();
+    }
+
+    @Test
+    void fastResponseIsWrittenWholeWithoutHedge() {
+        FakeNettyRoutingFilter routing = new FakeNettyRoutingFilter(BODY);
+
+        MockServerWebExchange exchange = get("/myservice/orders/42", routing);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(BODY.length);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+        assertThat(routing.calls).hasValue(1);
+        assertThat(hedges("sent")).isZero();
+    }
+
+    // Headers arrive at once, the body late: the primary must not win on headers alone
+    @Test
+    void slowBodyIsHedgedAndTheHedgeIsWrittenWhole() {
+        FakeNettyRoutingFilter routing = new FakeNettyRoutingFilter(BODY, Duration.ofSeconds(3), Duration.ZERO);
+
+        long start = System.nanoTime();
+        MockServerWebExchange exchange = get("/myservice/orders/42", routing);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+        assertThat(exchange.getAttributes()).doesNotContainKey(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        assertThat(routing.calls).hasValue(2);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void pathWithoutHedgingIsWrittenByNettyWriteResponseFilter() {
+        FakeNettyRoutingFilter routing = new FakeNettyRoutingFilter(BODY, Duration.ofMillis(200));
+
+        MockServerWebExchange exchange = get("/myservice/reports", routing);
+
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+        assertThat(routing.calls).hasValue(1);
+        assertThat(hedges("sent")).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Incremental sync window for a job: (sync.lowerBound, sync.upperBound] in epoch millis, put
+// into the job ExecutionContext before the first step. The lower bound is the upper bound of the
+// last COMPLETED execution of the same job, so the high-water mark lives in the job repository
+// and only advances when a run succeeds. The upper bound lags "now" a little so rows from
+// transactions still in flight are picked up by the next run instead of being skipped. "Now" is
+// the database's SYSTIMESTAMP, the clock that stamps last_modified, not the batch host's.
+public class HighWaterMarkListener implements JobExecutionListener {
+
+    public static final String LOWER_BOUND = "sync.lowerBound";
+    public static final String UPPER_BOUND = "sync.upperBound";
+
+    private static final Logger log = LoggerFactory.getLogger(HighWaterMarkListener.class);
+    private static final int INSTANCES_TO_SCAN = 100;
+
+    private final JobExplorer jobExplorer;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration safetyLag;
+    private final long initialLowerBound;
+
+    public HighWaterMarkListener(JobExplorer jobExplorer, DataSource dataSource, Duration safetyLag,
+                                 long initialLowerBound) {
+        this.jobExplorer = jobExplorer;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.safetyLag = safetyLag;
+        this.initialLowerBound = initialLowerBound;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        ExecutionContext context = jobExecution.getExecutionContext();
+        if (context.containsKey(UPPER_BOUND)) {
+            return; // restart of a failed run keeps its original window
+        }
+
+        String jobName = jobExecution.getJobInstance().getJobName();
+        long lowerBound = lastHighWaterMark(jobName).orElse(initialLowerBound);
+        Timestamp databaseNow = jdbcTemplate.queryForObject("SELECT SYSTIMESTAMP FROM DUAL", Timestamp.class);
+        long upperBound = databaseNow.getTime() - safetyLag.toMillis();
+
+        context.putLong(LOWER_BOUND, lowerBound);
+        context.putLong(UPPER_BOUND, Math.max(lowerBound, upperBound));
+        log.info("Incremental sync {} window: {} -> {}", jobName, lowerBound, upperBound);
+    }
+
+    private Optional<Long> lastHighWaterMark(String jobName) {
+        List<JobInstance> instances = jobExplorer.getJobInstances(jobName, 0, INSTANCES_TO_SCAN);
+        return instances.stream()
+                .flatMap(instance -> jobExplorer.getJobExecutions(instance).stream())
+                .filter(execution -> execution.getStatus() == BatchStatus.COMPLETED)
+                .filter(execution -> execution.getExecutionContext().containsKey(UPPER_BOUND))
+                .max(Comparator.comparingLong(execution -> execution.getExecutionContext().getLong(UPPER_BOUND)))
+                .map(execution -> execution.getExecutionContext().getLong(UPPER_BOUND));
+    }
+}
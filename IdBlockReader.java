@@ -0,0 +1,85 @@
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+// Streams a single long id column in blocks of blockSize into primitive long[] items, with an
+// explicit JDBC fetch size and no per-row boxing. The SQL must select one id column, take the
+// last processed id as its only parameter and be ordered by id, e.g.
+//   SELECT a.id FROM ... WHERE ... AND a.id > ? ORDER BY a.id
+// The last id of each committed chunk is saved, so a restart resumes with a keyset seek
+// instead of re-reading the cursor from the beginning.
+public class IdBlockReader implements ItemStreamReader<long[]> {
+
+    private static final String LAST_ID_KEY = "idBlockReader.lastId";
+
+    private final DataSource dataSource;
+    private final String sql;
+    private final int fetchSize;
+    private final int blockSize;
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private long lastId = Long.MIN_VALUE;
+
+    public IdBlockReader(DataSource dataSource, String sql, int fetchSize, int blockSize) {
+        this.dataSource = dataSource;
+        this.sql = sql;
+        this.fetchSize = fetchSize;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        lastId = executionContext.getLong(LAST_ID_KEY, Long.MIN_VALUE);
+        try {
+            // Own connection, outside the chunk transactions, like JdbcCursorItemReader
+            connection = dataSource.getConnection();
+            connection.setReadOnly(true);
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, lastId);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            close();
+            throw new ItemStreamException("Could not open id cursor", e);
+        }
+    }
+
+    @Override
+    public long[] read() throws SQLException {
+        long[] block = new long[blockSize];
+        int count = 0;
+        while (count < blockSize && resultSet.next()) {
+            block[count++] = resultSet.getLong(1);
+        }
+        if (count == 0) {
+            return null;
+        }
+        lastId = block[count - 1];
+        return count == blockSize ? block : Arrays.copyOf(block, count);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(LAST_ID_KEY, lastId);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+        JdbcUtils.closeConnection(connection);
+        resultSet = null;
+        statement = null;
+        connection = null;
+    }
+}
@@ -0,0 +1,75 @@
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import jakarta.json.stream.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Ids -> _bulk delete body, per id. boxed = the bulkDeleteWriter path (List<Long> ->
+// List<BulkOperation> -> client NDJSON serialization); primitive = long[] -> bytes as in
+// RawBulkDeleteWriter. Throughput is ids/s; run with -prof gc for bytes allocated per id:
+//   java -jar benchmarks.jar IdBulkEncodingBenchmark -prof gc
+// The JDBC side (fetch size, boxing in the RowMapper) needs a database and is not covered here.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdBulkEncodingBenchmark {
+
+    private static final int IDS = 1000;
+    private static final String INDEX = "your-index-name";
+
+    private final JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+    private final byte[] prefix = RawBulkDeleteWriter.deletePrefix(INDEX);
+
+    private long[] primitiveIds;
+    private List<Long> boxedIds;
+
+    @Setup
+    public void setup() {
+        primitiveIds = LongStream.range(9_000_000_000L, 9_000_000_000L + IDS).toArray();
+        boxedIds = LongStream.of(primitiveIds).boxed().toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IDS)
+    public byte[] boxed() {
+        List<BulkOperation> operations = boxedIds.stream()
+                .map(id -> BulkOperation.of(b -> b
+                        .delete(del -> del
+                                .index(INDEX)
+                                .id(String.valueOf(id)))))
+                .toList();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (BulkOperation operation : operations) {
+            JsonGenerator generator = mapper.jsonProvider().createGenerator(out);
+            operation.serialize(generator, mapper);
+            generator.close();
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IDS)
+    public int primitive() {
+        byte[] body = new byte[IDS * (prefix.length + 24)];
+        return RawBulkDeleteWriter.encodeDeletes(prefix, primitiveIds, body, 0);
+    }
+}
@@ -0,0 +1,44 @@
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Splits [MIN(id), MAX(id)] of the given query into gridSize contiguous ranges, stored as
+// minId/maxId in each partition's ExecutionContext. Partition names are stable, so a restart
+// picks up the same partitions and only re-runs the ones that did not complete.
+public class IdRangePartitioner implements Partitioner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String minMaxSql;
+
+    // minMaxSql must return two columns: min_id, max_id
+    public IdRangePartitioner(JdbcTemplate jdbcTemplate, String minMaxSql) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minMaxSql = minMaxSql;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(minMaxSql);
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+
+        if (bounds.get("min_id") == null || bounds.get("max_id") == null) {
+            return partitions; // nothing to process
+        }
+
+        long min = ((Number) bounds.get("min_id")).longValue();
+        long max = ((Number) bounds.get("max_id")).longValue();
+        long rangeSize = (max - min) / gridSize + 1;
+
+        int number = 0;
+        for (long start = min; start <= max; start += rangeSize) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong("minId", start);
+            context.putLong("maxId", Math.min(start + rangeSize - 1, max));
+            partitions.put("partition" + number++, context);
+        }
+        return partitions;
+    }
+}
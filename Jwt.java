@@ -2,7 +2,10 @@
 public class JwtValidationFilter implements GlobalFilter, Ordered {
 
     @Autowired
-    private MyTokenService tokenService; // Your custom library
+    private ValidatedTokenCache validatedTokenCache; // JwtValidator behind a cache keyed by token hash
+
+    @Autowired
+    private NewTokenCache newTokenCache; // shared token from MyTokenService, refreshed off the event loop
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -15,27 +18,18 @@ public class JwtValidationFilter implements GlobalFilter, Ordered {
         String token = authHeader.substring(7); // Remove "Bearer "
 
         try {
-            // Validate JWT using jose4j
-            JwtConsumer jwtConsumer = new JwtConsumerBuilder()
-                    .setRequireExpirationTime()
-                    .setAllowedClockSkewInSeconds(30)
-                    .setRequireSubject()
-                    .setVerificationKey(/* your public key here */)
-                    .build();
-
-            JwtClaims claims = jwtConsumer.processToClaims(token);
-
-            // If valid, call custom token generator
-            TokenResponse newToken = tokenService.getToken(); // access_token, token_type, expires_in
-
-            // Set new token in response header
-            exchange.getResponse().getHeaders().add("X-New-Token", newToken.getAccessToken());
-
-            return chain.filter(exchange);
-
+            // Validate JWT using jose4j (prebuilt consumer, cached JWKS, cached result per token)
+            JwtClaims claims = validatedTokenCache.validate(token);
         } catch (InvalidJwtException e) {
             return unauthorized(exchange);
         }
+
+        return newTokenCache.accessToken()
+                .flatMap(newToken -> {
+                    // Set new token in response header
+                    exchange.getResponse().getHeaders().add("X-New-Token", newToken);
+                    return chain.filter(exchange);
+                });
     }
 
     private Mono<Void> unauthorized(ServerWebExchange exchange) {
@@ -0,0 +1,68 @@
+package com.example.gateway;
+
+import org.jose4j.jwk.HttpsJwks;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
+import org.jose4j.keys.resolvers.HttpsJwksVerificationKeyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// One JwtConsumer for all requests (jose4j consumers are thread-safe once built) with keys from
+// the JWKS endpoint. The key set is refreshed in the background on boundedElastic, ahead of its
+// cache duration, so validate() normally does no I/O; only a token signed with an unknown kid
+// (key rotation) makes the resolver fetch inline, rate limited by HttpsJwks.
+@Component
+public class JwtValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtValidator.class);
+
+    private final HttpsJwks httpsJwks;
+    private final JwtConsumer jwtConsumer;
+    private final Disposable keyRefresh;
+
+    public JwtValidator(@Value("${jwt.jwks-uri}") String jwksUri,
+                        @Value("${jwt.jwks-refresh:15m}") Duration jwksRefresh,
+                        @Value("${jwt.clock-skew:30s}") Duration clockSkew) {
+        httpsJwks = new HttpsJwks(jwksUri);
+        // Background refresh runs first, the cached set never expires on the request path
+        httpsJwks.setDefaultCacheDuration(jwksRefresh.multipliedBy(2).toSeconds());
+
+        jwtConsumer = new JwtConsumerBuilder()
+                .setRequireExpirationTime()
+                .setAllowedClockSkewInSeconds((int) clockSkew.toSeconds())
+                .setRequireSubject()
+                .setVerificationKeyResolver(new HttpsJwksVerificationKeyResolver(httpsJwks))
+                .build();
+
+        keyRefresh = Schedulers.boundedElastic().schedulePeriodically(this::refreshKeys,
+                0, jwksRefresh.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public JwtClaims validate(String token) throws InvalidJwtException {
+        return jwtConsumer.processToClaims(token);
+    }
+
+    private void refreshKeys() {
+        try {
+            httpsJwks.refresh();
+        } catch (Exception e) {
+            // Keep the previous key set, it stays valid for another refresh period
+            log.warn("JWKS refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        keyRefresh.dispose();
+    }
+}
@@ -1,12 +1,11 @@
 for (BulkResponseItem item : bulkResponse.items()) {
     if (item.error() != null) {
-        // ❌ Error logging
-        logger.error("Bulk operation failed. Type: {}, ID: {}, Reason: {}",
-                item.operationType(), item.id(), item.error().reason());
+        // ❌ Failure journaled for replay (and logged)
+        failureJournal.recordFailure(item.operationType().jsonValue(), item.index(), item.id(),
+                item.error().reason(), 1);
     } else {
-        // ✅ Success logging
-        logger.info("Bulk operation succeeded. Type: {}, ID: {}",
-                item.operationType(), item.id());
+        // ✅ Success logging, sampled every bulk.success-log-every items
+        failureJournal.recordSuccess(item.operationType().jsonValue(), item.id());
     }
 }
 
@@ -60,188 +59,386 @@ private String escapeSearchTerm(String term) {
 }
 
 
+private final GlobalSearchCache globalSearchCache;
+private final GlobalSearchQueryBuilder queryBuilder;
+
 public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamCheckRequired,
         String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType) {
+
+    return getGlobalSearchData(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+        searchId, globalSearchRequest, matchType, true);
+}
+
+// Paging and refinement calls pass includeAggregations = false and fetch facets once
+// through getGlobalSearchFacets, which keeps the terms aggregations off the hit query.
+public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType,
+        boolean includeAggregations) {
+
+    // One normalized term for the cache key and the query, so equal keys mean equal queries
+    String term = GlobalSearchCache.normalizeSearchId(searchId);
+    GlobalSearchCache.Key cacheKey = GlobalSearchCache.keyOf(gsamSensitivity, isGsamCheckRequired,
+        federalAccessStatus, term, globalSearchRequest, matchType);
+
+    GlobalSearchCache.Key scopedKey = includeAggregations ? cacheKey : cacheKey.withHitsOnly();
+    return globalSearchCache.get(scopedKey,
+        () -> executeGlobalSearch(scopedKey, gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+            term, globalSearchRequest, matchType, includeAggregations));
+}
+
+private final GlobalSearchMetrics searchMetrics;
+
+private ResponseData executeGlobalSearch(GlobalSearchCache.Key metricsKey, String gsamSensitivity,
+        String isGsamCheckRequired, String federalAccessStatus, String searchId,
+        GlobalSearchRequest globalSearchRequest, String matchType, boolean includeAggregations) {
     
     ResponseData responseData = new ResponseData();
-    BoolQuery.Builder mainQuery = QueryBuilders.bool();
+    long start = System.nanoTime();
+    SearchRequest searchRequest = buildHitRequest(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+        searchId, globalSearchRequest, matchType, includeAggregations);
+    long built = System.nanoTime();
 
-    // 1. Base Search Query ==============================================
-    buildSearchQuery(mainQuery, searchId, matchType);
+    try {
+        SearchResponse<ElasticSearchOrderDetail> response = esClient.search(searchRequest, ElasticSearchOrderDetail.class);
+        long searched = System.nanoTime();
+        mapResultsToResponse(responseData, response);
+        long mapped = System.nanoTime();
 
-    // 2. Access Control Filters =========================================
-    applyAccessControlFilters(mainQuery, federalAccessStatus, gsamSensitivity, isGsamCheckRequired);
+        searchMetrics.record(metricsKey, built - start, searched - built, response.took(),
+            mapped - searched, response.hits().hits().size());
+    } catch (IOException e) {
+        searchMetrics.recordFailure(metricsKey, built - start, System.nanoTime() - built, "error");
+        log.error("Elasticsearch query failed: {}", e.getMessage(), e);
+        responseData.setError(e.getMessage());
+    } catch (RuntimeException e) {
+        searchMetrics.recordFailure(metricsKey, built - start, System.nanoTime() - built, "error");
+        throw e;
+    }
+
+    return responseData;
+}
 
-    // 3. String Filters ================================================
-    applyStringFilters(mainQuery, globalSearchRequest.getFilters());
+private SearchRequest buildHitRequest(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType,
+        boolean includeAggregations) {
 
-    // 4. Date Filters ==================================================
-    applyDateRangeFilters(mainQuery, globalSearchRequest.getDates());
+    // 1. Query =========================================================
+    Query query = queryBuilder.buildQuery(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+        searchId, globalSearchRequest, matchType);
+
+    // 2. Highlight Configuration =======================================
+    Highlight highlight = queryBuilder.highlight();
+
+    // 3. Search Request ================================================
+    SearchRequest.Builder searchRequest = new SearchRequest.Builder()
+        .index("order_details_alias")
+        .query(query)
+        .size(1000)
+        .highlight(highlight);
 
-    // 5. Owner Filter ==================================================
-    if (StringUtils.hasText(globalSearchRequest.getOwner())) {
-        mainQuery.must(QueryBuilders.term(t -> t
-            .field("userName.keyword")
-            .value(globalSearchRequest.getOwner())));
+    if (includeAggregations) {
+        searchRequest.aggregations(queryBuilder.aggregations());
     }
 
-    // 6. Highlight Configuration =======================================
-    Highlight highlight = buildHighlightConfig();
+    return searchRequest.build();
+}
+
+// REACTIVE =============================================================
+
+private final ElasticsearchAsyncClient esAsyncClient;
+
+@Value("${globalsearch.timeout:5s}")
+private Duration searchTimeout;
+
+// Non-blocking variant for WebFlux callers. Nothing waits on a platform thread: the search runs
+// on the async client, and cancelling the Mono (client disconnect, timeout) cancels the
+// in-flight HTTP request to Elasticsearch.
+public Mono<ResponseData> getGlobalSearchDataReactive(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType,
+        boolean includeAggregations) {
+
+    // One normalized term for the cache key and the query, so equal keys mean equal queries
+    String term = GlobalSearchCache.normalizeSearchId(searchId);
+    GlobalSearchCache.Key cacheKey = GlobalSearchCache.keyOf(gsamSensitivity, isGsamCheckRequired,
+        federalAccessStatus, term, globalSearchRequest, matchType);
+
+    GlobalSearchCache.Key scopedKey = includeAggregations ? cacheKey : cacheKey.withHitsOnly();
+    return globalSearchCache.getReactive(scopedKey, () -> {
+        long start = System.nanoTime();
+        SearchRequest searchRequest = buildHitRequest(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+            term, globalSearchRequest, matchType, includeAggregations);
+        long built = System.nanoTime();
 
-    // 7. Aggregation Configuration =====================================
-    Map<String, Aggregation> aggregations = buildAggregations();
+        return Mono.fromFuture(() -> esAsyncClient.search(searchRequest, ElasticSearchOrderDetail.class))
+            .map(response -> {
+                long searched = System.nanoTime();
+                ResponseData responseData = new ResponseData();
+                mapResultsToResponse(responseData, response);
+
+                searchMetrics.record(scopedKey, built - start, searched - built, response.took(),
+                    System.nanoTime() - searched, response.hits().hits().size());
+                return responseData;
+            })
+            .timeout(searchTimeout)
+            .onErrorResume(e -> {
+                searchMetrics.recordFailure(scopedKey, built - start, System.nanoTime() - built,
+                    e instanceof TimeoutException ? "timeout" : "error");
+                ResponseData responseData = new ResponseData();
+                if (e instanceof TimeoutException) {
+                    log.warn("Elasticsearch query timed out after {} for: {}", searchTimeout, term);
+                    responseData.setError("Search timed out");
+                } else {
+                    log.error("Elasticsearch query failed: {}", e.getMessage(), e);
+                    responseData.setError(e.getMessage());
+                }
+                return Mono.just(responseData);
+            });
+    });
+}
+
+// BATCHED ==============================================================
+
+private final GlobalSearchBatcher searchBatcher;
+
+// Type-ahead entry point: searches from all users within the batch window share one _msearch,
+// and a newer search from the same userKey completes the older Mono empty.
+public Mono<ResponseData> getGlobalSearchDataBatched(String userKey, String gsamSensitivity,
+        String isGsamCheckRequired, String federalAccessStatus, String searchId,
+        GlobalSearchRequest globalSearchRequest, String matchType) {
+
+    // One normalized term for the cache key and the query, so equal keys mean equal queries
+    String term = GlobalSearchCache.normalizeSearchId(searchId);
+    GlobalSearchCache.Key cacheKey = GlobalSearchCache.keyOf(gsamSensitivity, isGsamCheckRequired,
+        federalAccessStatus, term, globalSearchRequest, matchType).withHitsOnly();
+
+    return globalSearchCache.getReactive(cacheKey, () -> {
+        long start = System.nanoTime();
+        MultisearchBody body = MultisearchBody.of(b -> b
+            .query(queryBuilder.buildQuery(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+                term, globalSearchRequest, matchType))
+            .size(1000)
+            .highlight(queryBuilder.highlight()));
+        long built = System.nanoTime();
+
+        // Round trip includes the wait for the batch window, as the caller sees it. A search
+        // superseded by a newer one from the same user completes empty and is not recorded.
+        return searchBatcher.submit(userKey, body)
+            .map(response -> {
+                long searched = System.nanoTime();
+                ResponseData responseData = new ResponseData();
+                mapResultsToResponse(responseData, response);
+
+                searchMetrics.record(cacheKey, built - start, searched - built, response.took(),
+                    System.nanoTime() - searched, response.hits().hits().size());
+                return responseData;
+            })
+            .timeout(searchTimeout)
+            .onErrorResume(e -> {
+                searchMetrics.recordFailure(cacheKey, built - start, System.nanoTime() - built,
+                    e instanceof TimeoutException ? "timeout" : "error");
+                log.error("Batched Elasticsearch query failed: {}", e.getMessage(), e);
+                ResponseData responseData = new ResponseData();
+                responseData.setError(e.getMessage());
+                return Mono.just(responseData);
+            });
+    });
+}
+
+// FACETS ===============================================================
+
+// Facet counts only: size(0), no hits, no highlights. Cached per access scope and filter set.
+public ResponseData getGlobalSearchFacets(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType) {
+
+    // One normalized term for the cache key and the query, so equal keys mean equal queries
+    String term = GlobalSearchCache.normalizeSearchId(searchId);
+    GlobalSearchCache.Key cacheKey = GlobalSearchCache.keyOf(gsamSensitivity, isGsamCheckRequired,
+        federalAccessStatus, term, globalSearchRequest, matchType);
+
+    return globalSearchCache.getFacets(cacheKey, () -> {
+        ResponseData responseData = new ResponseData();
+        SearchRequest searchRequest = new SearchRequest.Builder()
+            .index("order_details_alias")
+            .query(queryBuilder.buildQuery(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+                term, globalSearchRequest, matchType))
+            .size(0)
+            .aggregations(queryBuilder.aggregations())
+            .build();
+
+        try {
+            SearchResponse<ElasticSearchOrderDetail> response = esClient.search(searchRequest, ElasticSearchOrderDetail.class);
+            responseData.setAggregationResults(mapAggregations(response));
+        } catch (IOException e) {
+            log.error("Elasticsearch facet query failed: {}", e.getMessage(), e);
+            responseData.setError(e.getMessage());
+        }
+        return responseData;
+    });
+}
+
+// PROJECTION ===========================================================
+
+// Compact hit for the results grid: only the requested _source columns, no full document.
+public record GlobalSearchRow(String id, ObjectNode columns, Map<String, List<String>> highlight) {}
+
+@Value("${globalsearch.projection.default-columns:}")
+private List<String> defaultColumns;
+
+// Same query as getGlobalSearchData, but the response carries only the given columns
+// (or globalsearch.projection.default-columns when null/empty), without aggregations.
+public ResponseData getGlobalSearchRows(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType,
+        List<String> columns) {
+
+    ResponseData responseData = new ResponseData();
+    List<String> includes = columns != null && !columns.isEmpty() ? columns
+        : !defaultColumns.isEmpty() ? defaultColumns : queryBuilder.searchFields();
 
-    // 8. Execute Search ================================================
     SearchRequest searchRequest = new SearchRequest.Builder()
         .index("order_details_alias")
-        .query(mainQuery.build()._toQuery())
+        .query(queryBuilder.buildQuery(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+            searchId, globalSearchRequest, matchType))
+        .source(src -> src.filter(f -> f.includes(includes)))
         .size(1000)
-        .highlight(highlight)
-        .aggregations(aggregations)
+        .highlight(queryBuilder.highlight())
         .build();
 
     try {
-        SearchResponse<ElasticSearchOrderDetail> response = esClient.search(searchRequest, ElasticSearchOrderDetail.class);
-        mapResultsToResponse(responseData, response);
+        SearchResponse<ObjectNode> response = esClient.search(searchRequest, ObjectNode.class);
+        List<Hit<ObjectNode>> hits = response.hits().hits();
+
+        List<GlobalSearchRow> rows = new ArrayList<>(hits.size());
+        for (Hit<ObjectNode> hit : hits) {
+            rows.add(new GlobalSearchRow(hit.id(), hit.source(), hit.highlight()));
+        }
+        responseData.setRows(rows);
     } catch (IOException e) {
-        log.error("Elasticsearch query failed: {}", e.getMessage(), e);
+        log.error("Elasticsearch projection query failed: {}", e.getMessage(), e);
         responseData.setError(e.getMessage());
     }
 
     return responseData;
 }
 
-// HELPER METHODS =======================================================
+// PAGINATION ===========================================================
 
-private void buildSearchQuery(BoolQuery.Builder mainQuery, String searchTerm, String matchType) {
-    if (!StringUtils.hasText(searchTerm)) return;
+private static final String PIT_KEEP_ALIVE = "1m";
 
-    BoolQuery.Builder searchBool = QueryBuilders.bool();
-    
-    if ("exact".equalsIgnoreCase(matchType)) {
-        // Exact match using .keyword fields
-        searchBool.must(QueryBuilders.multiMatch(m -> m
-            .query(searchTerm)
-            .fields(EZStatusUtil.getGlobalSearchMap().keySet().stream()
-                .map(f -> f + ".keyword")
-                .collect(Collectors.toList()))
-        );
-    } else {
-        // Wildcard search with boosted exact matches
-        searchBool.should(QueryBuilders.multiMatch(m -> m
-            .query(searchTerm)
-            .fields(EZStatusUtil.getGlobalSearchMap().keySet())
-            .type(TextQueryType.BoolPrefix)
-        );
-        
-        searchBool.should(QueryBuilders.queryString(q -> q
-            .query(searchTerm + "*")
-            .fields(EZStatusUtil.getGlobalSearchMap().keySet())
-        ));
-    }
-    
-    mainQuery.must(searchBool.build()._toQuery());
-}
+public record SearchCursor(String pitId, List<FieldValue> searchAfter) {}
 
-private void applyAccessControlFilters(BoolQuery.Builder mainQuery, String federalAccess, 
-        String gsamLevels, String gsamCheckRequired) {
-    
-    // Federal access filter
-    if ("No".equalsIgnoreCase(federalAccess)) {
-        mainQuery.mustNot(QueryBuilders.term(t -> t
-            .field("federalFlag.keyword")
-            .value("FEDERAL")));
-    }
+public record GlobalSearchPage(ResponseData data, SearchCursor next) {}
 
-    // GSAM sensitivity filter
-    if ("true".equalsIgnoreCase(gsamCheckRequired)) {
-        BoolQuery.Builder gsamQuery = QueryBuilders.bool();
-        
-        // Include allowed levels or missing field
-        Arrays.stream(gsamLevels.split(","))
-            .forEach(level -> gsamQuery.should(QueryBuilders.term(t -> t
-                .field("gsamSensitivityLevel.keyword")
-                .value(level))));
-        
-        gsamQuery.should(QueryBuilders.bool(b -> b
-            .mustNot(QueryBuilders.exists(e -> e.field("gsamSensitivityLevel"))));
-        
-        mainQuery.must(gsamQuery.build()._toQuery());
-    }
-}
+// One page of results: pass a null cursor for the first page, then the returned next cursor.
+// next is null on the last page.
+public GlobalSearchPage getGlobalSearchPage(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType,
+        SearchCursor cursor, int pageSize) {
 
-private void applyStringFilters(BoolQuery.Builder mainQuery, GlobalSearchRequest.Filters filters) {
-    if (filters == null) return;
-
-    Stream.of(
-        Map.entry(filters.getFulfillmentStatus(), "fulfillmentStatus.keyword"),
-        Map.entry(filters.getCrStatus(), "crStatus.keyword"),
-        Map.entry(filters.getCenterName(), "centerName.keyword"),
-        Map.entry(filters.getSource(), "source.keyword"),
-        Map.entry(filters.getWorkType(), "workType.keyword"),
-        Map.entry(filters.getQueueName(), "queueName.keyword"),
-        Map.entry(filters.getOrderActivity(), "orderActivity.keyword"),
-        Map.entry(filters.getTaskName(), "taskName.keyword"),
-        Map.entry(filters.getProductType(), "productType.keyword")
-    ).forEach(entry -> {
-        List<String> values = entry.getKey();
-        String field = entry.getValue();
-        
-        if (values != null && !values.isEmpty()) {
-            mainQuery.must(QueryBuilders.terms(t -> t
-                .field(field)
-                .terms(terms -> terms.value(values.stream()
-                    .map(FieldValue::of)
-                    .collect(Collectors.toList())))
-            ));
+    ResponseData responseData = new ResponseData();
+    Query query = queryBuilder.buildQuery(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+        searchId, globalSearchRequest, matchType);
+
+    try {
+        String pitId = cursor != null ? cursor.pitId() : openPointInTime();
+        List<FieldValue> searchAfter = cursor != null ? cursor.searchAfter() : null;
+
+        SearchResponse<ElasticSearchOrderDetail> response = esClient.search(
+            buildPageRequest(query, pitId, searchAfter, pageSize), ElasticSearchOrderDetail.class);
+        mapResultsToResponse(responseData, response);
+
+        List<Hit<ElasticSearchOrderDetail>> hits = response.hits().hits();
+        if (hits.size() < pageSize) {
+            closePointInTime(response.pitId());
+            return new GlobalSearchPage(responseData, null);
         }
-    });
+        return new GlobalSearchPage(responseData,
+            new SearchCursor(response.pitId(), hits.get(hits.size() - 1).sort()));
+    } catch (IOException e) {
+        log.error("Elasticsearch page query failed: {}", e.getMessage(), e);
+        responseData.setError(e.getMessage());
+        return new GlobalSearchPage(responseData, null);
+    }
 }
 
-private void applyDateRangeFilters(BoolQuery.Builder mainQuery, GlobalSearchRequest.Dates dates) {
-    if (dates == null) return;
+// Streams every matching page in order. The point in time is opened on subscription and closed
+// on completion, error or cancellation, so only one page is held in memory at a time.
+public Flux<ResponseData> streamGlobalSearchData(String gsamSensitivity, String isGsamCheckRequired,
+        String federalAccessStatus, String searchId, GlobalSearchRequest globalSearchRequest, String matchType,
+        int pageSize) {
+
+    Query query = queryBuilder.buildQuery(gsamSensitivity, isGsamCheckRequired, federalAccessStatus,
+        searchId, globalSearchRequest, matchType);
 
-    applySingleDateFilter(mainQuery, dates.getDueDate(), "dueDate");
-    applySingleDateFilter(mainQuery, dates.getConfirmDate(), "orderSubmitDate");
-    applySingleDateFilter(mainQuery, dates.getCreationDate(), "orderCreationDate");
+    return Flux.using(
+            () -> new AtomicReference<>(openPointInTime()),
+            pit -> Flux.<ResponseData, List<FieldValue>>generate(() -> List.of(), (searchAfter, sink) -> {
+                try {
+                    SearchResponse<ElasticSearchOrderDetail> response = esClient.search(
+                        buildPageRequest(query, pit.get(), searchAfter.isEmpty() ? null : searchAfter, pageSize),
+                        ElasticSearchOrderDetail.class);
+                    pit.set(response.pitId());
+
+                    List<Hit<ElasticSearchOrderDetail>> hits = response.hits().hits();
+                    if (hits.isEmpty() && !searchAfter.isEmpty()) {
+                        sink.complete();
+                        return searchAfter;
+                    }
+
+                    ResponseData page = new ResponseData();
+                    mapResultsToResponse(page, response);
+                    sink.next(page);
+
+                    if (hits.size() < pageSize) {
+                        sink.complete();
+                        return searchAfter;
+                    }
+                    return hits.get(hits.size() - 1).sort();
+                } catch (IOException e) {
+                    sink.error(e);
+                    return searchAfter;
+                }
+            }),
+            pit -> closePointInTime(pit.get()))
+        .subscribeOn(Schedulers.boundedElastic());
 }
 
-private void applySingleDateFilter(BoolQuery.Builder mainQuery, DateRange range, String field) {
-    if (range == null || !range.isValid()) return;
+private SearchRequest buildPageRequest(Query query, String pitId, List<FieldValue> searchAfter, int pageSize) {
+    SearchRequest.Builder builder = new SearchRequest.Builder()
+        .pit(p -> p.id(pitId).keepAlive(k -> k.time(PIT_KEEP_ALIVE)))
+        .query(query)
+        .size(pageSize)
+        .highlight(queryBuilder.highlight())
+        // _shard_doc is the cheapest unique tiebreaker inside a point in time
+        .sort(s -> s.score(sc -> sc.order(SortOrder.Desc)))
+        .sort(s -> s.field(f -> f.field("_shard_doc").order(SortOrder.Asc)))
+        // Total only needs counting once
+        .trackTotalHits(t -> t.enabled(searchAfter == null));
 
-    mainQuery.must(QueryBuilders.range(r -> r
-        .field(field)
-        .gte(JsonData.of(range.getStartDate()))
-        .lte(JsonData.of(range.getEndDate()))
-    ));
+    if (searchAfter != null) {
+        builder.searchAfter(searchAfter);
+    }
+    return builder.build();
 }
 
-private Highlight buildHighlightConfig() {
-    return Highlight.of(h -> h
-        .type(HighlighterType.Unified)
-        .fields(EZStatusUtil.getGlobalSearchMap().keySet().stream()
-            .collect(Collectors.toMap(
-                Function.identity(),
-                f -> HighlightField.of(hf -> hf)
-            ))
-        .preTags("<strong>")
-        .postTags("</strong>")
-    );
+private String openPointInTime() throws IOException {
+    return esClient.openPointInTime(o -> o
+        .index("order_details_alias")
+        .keepAlive(k -> k.time(PIT_KEEP_ALIVE)))
+        .id();
 }
 
-private Map<String, Aggregation> buildAggregations() {
-    return EZStatusUtil.getAggregatedDataMap().entrySet().stream()
-        .collect(Collectors.toMap(
-            Map.Entry::getKey,
-            entry -> Aggregation.of(a -> a
-                .terms(t -> t
-                    .field(entry.getValue() + ".keyword")
-                    .size(100)
-                )
-        ));
+private void closePointInTime(String pitId) {
+    try {
+        esClient.closePointInTime(c -> c.id(pitId));
+    } catch (IOException e) {
+        // Not fatal, the point in time expires after PIT_KEEP_ALIVE anyway
+        log.warn("Failed to close point in time: {}", e.getMessage());
+    }
 }
 
-private void mapResultsToResponse(ResponseData responseData, SearchResponse<ElasticSearchOrderDetail> response) {
+// HELPER METHODS =======================================================
+
+private void mapResultsToResponse(ResponseData responseData, ResponseBody<ElasticSearchOrderDetail> response) {
     // Map hits
     responseData.setRecords(response.hits().hits().stream()
         .map(SearchHit::source)
@@ -253,19 +450,23 @@ private void mapResultsToResponse(ResponseData responseData, SearchResponse<Elas
         .collect(Collectors.toList()));
 
     // Map aggregations
-    if (response.aggregations() != null) {
-        Map<String, Map<String, Long>> aggregations = new HashMap<>();
-        
-        response.aggregations().forEach((name, agg) -> {
-            if (agg.isTerms()) {
-                aggregations.put(name, agg.terms().buckets().array().stream()
-                    .collect(Collectors.toMap(
-                        b -> b.key().toString(),
-                        TermsBucket::docCount
-                    )));
-            }
-        });
-        
-        responseData.setAggregationResults(aggregations);
+    if (response.aggregations() != null && !response.aggregations().isEmpty()) {
+        responseData.setAggregationResults(mapAggregations(response));
     }
 }
+
+private Map<String, Map<String, Long>> mapAggregations(ResponseBody<ElasticSearchOrderDetail> response) {
+    Map<String, Map<String, Long>> aggregations = new HashMap<>();
+
+    response.aggregations().forEach((name, agg) -> {
+        if (agg.isTerms()) {
+            aggregations.put(name, agg.terms().buckets().array().stream()
+                .collect(Collectors.toMap(
+                    b -> b.key().toString(),
+                    TermsBucket::docCount
+                )));
+        }
+    });
+
+    return aggregations;
+}
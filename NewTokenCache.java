@@ -0,0 +1,71 @@
+package com.example.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Shares one token from MyTokenService across requests until shortly before its expires_in.
+// getToken() is blocking, so it only ever runs on boundedElastic, and concurrent callers share
+// one refresh. Once the token is past its refresh point but not yet expired, callers keep getting
+// it while the refresh runs in the background; only a missing or expired token makes them wait.
+@Component
+public class NewTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NewTokenCache.class);
+
+    private final MyTokenService tokenService;
+    private final Duration refreshBefore;
+
+    private final AtomicReference<Mono<CachedToken>> inFlight = new AtomicReference<>();
+    private volatile CachedToken current;
+
+    private record CachedToken(String accessToken, Instant refreshAt, Instant expiresAt) {}
+
+    public NewTokenCache(MyTokenService tokenService,
+                         @Value("${jwt.new-token.refresh-before:60s}") Duration refreshBefore) {
+        this.tokenService = tokenService;
+        this.refreshBefore = refreshBefore;
+    }
+
+    public Mono<String> accessToken() {
+        CachedToken cached = current;
+        Instant now = Instant.now();
+        if (cached != null && now.isBefore(cached.refreshAt())) {
+            return Mono.just(cached.accessToken());
+        }
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            refresh().subscribe(token -> { }, e -> log.warn("Background token refresh failed: {}", e.getMessage()));
+            return Mono.just(cached.accessToken());
+        }
+        return refresh().map(CachedToken::accessToken);
+    }
+
+    private Mono<CachedToken> refresh() {
+        Mono<CachedToken> created = Mono.fromCallable(tokenService::getToken)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(this::toCached)
+                .doOnNext(token -> current = token)
+                .doFinally(signal -> inFlight.set(null))
+                .cache();
+        while (true) {
+            Mono<CachedToken> existing = inFlight.get();
+            if (existing != null) return existing;
+            if (inFlight.compareAndSet(null, created)) return created;
+        }
+    }
+
+    private CachedToken toCached(TokenResponse response) {
+        Instant now = Instant.now();
+        Duration lifetime = Duration.ofSeconds(response.getExpiresIn());
+        // Short-lived tokens: refresh at half their lifetime at the latest
+        Duration margin = refreshBefore.compareTo(lifetime.dividedBy(2)) < 0 ? refreshBefore : lifetime.dividedBy(2);
+        return new CachedToken(response.getAccessToken(), now.plus(lifetime).minus(margin), now.plus(lifetime));
+    }
+}
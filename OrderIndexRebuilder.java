@@ -0,0 +1,119 @@
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Full rebuild of the order index behind an alias: a fresh versioned index is created from the
+// mapping resource and loaded with refresh and replicas off, then segments are merged, settings
+// restored, the count checked and the alias moved in one _aliases call. Searches keep using the
+// old index until the swap; the old index is left in place for rollback.
+public class OrderIndexRebuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIndexRebuilder.class);
+    private static final Duration FORCE_MERGE_POLL = Duration.ofSeconds(10);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ElasticsearchClient client;
+    private final Resource indexDefinition;
+    private final String alias;
+
+    public OrderIndexRebuilder(ElasticsearchClient client, Resource indexDefinition, String alias) {
+        this.client = client;
+        this.indexDefinition = indexDefinition;
+        this.alias = alias;
+    }
+
+    public String newIndexName() {
+        return alias.replace("_alias", "") + "_" + System.currentTimeMillis();
+    }
+
+    public void createForBulkLoad(String index) throws IOException {
+        if (client.indices().exists(e -> e.index(index)).value()) {
+            return; // restart: keep loading into the same index
+        }
+        ObjectNode definition;
+        try (InputStream in = indexDefinition.getInputStream()) {
+            definition = (ObjectNode) objectMapper.readTree(in);
+        }
+        // No refreshes and no replica copies while loading; both come back in finishBulkLoad.
+        // Part of the create request, so the index never starts allocating replicas.
+        ObjectNode settings = definition.has("settings")
+                ? (ObjectNode) definition.get("settings")
+                : definition.putObject("settings");
+        settings.put("refresh_interval", "-1").put("number_of_replicas", 0);
+        String body = definition.toString();
+        client.indices().create(c -> c.index(index).withJson(new StringReader(body)));
+        log.info("Created index {} for bulk load", index);
+    }
+
+    public void finishBulkLoad(String index, String refreshInterval, int replicas) throws IOException, InterruptedException {
+        client.indices().refresh(r -> r.index(index));
+
+        // Merge while there are no replicas, so only the primaries do it and the replicas are
+        // then built from the merged segments. Runs as a task, a merge of a large index outlives
+        // the client's socket timeout.
+        String task = client.indices().forcemerge(f -> f
+                .index(index)
+                .maxNumSegments(1L)
+                .waitForCompletion(false)).task();
+        if (task != null) {
+            GetTasksResponse status = client.tasks().get(g -> g.taskId(task));
+            while (!status.completed()) {
+                Thread.sleep(FORCE_MERGE_POLL.toMillis());
+                status = client.tasks().get(g -> g.taskId(task));
+            }
+            // Fails the step: replicas stay off and the alias keeps pointing at the old index
+            if (status.error() != null) {
+                throw new IllegalStateException("Force-merge of " + index + " failed: "
+                        + status.error().type() + ": " + status.error().reason());
+            }
+        }
+
+        client.indices().putSettings(p -> p
+                .index(index)
+                .settings(s -> s
+                        .refreshInterval(t -> t.time(refreshInterval))
+                        .numberOfReplicas(String.valueOf(replicas))));
+        log.info("Index {} force-merged and restored to refresh {} / {} replicas", index, refreshInterval, replicas);
+    }
+
+    public void validateCount(String index, long expected, long maxDifference) throws IOException {
+        long actual = client.count(c -> c.index(index)).count();
+        if (Math.abs(actual - expected) > maxDifference) {
+            throw new IllegalStateException("Index " + index + " has " + actual + " documents, expected "
+                    + expected + " (allowed difference " + maxDifference + "); alias not swapped");
+        }
+        log.info("Index {} has {} documents, source has {}", index, actual, expected);
+    }
+
+    // Returns the indices the alias pointed to before the swap
+    public Set<String> swapAlias(String index) throws IOException {
+        Set<String> previous = client.indices().existsAlias(e -> e.name(alias)).value()
+                ? client.indices().getAlias(g -> g.name(alias)).result().keySet()
+                : Set.of();
+
+        List<Action> actions = new ArrayList<>();
+        for (String old : previous) {
+            if (!old.equals(index)) {
+                actions.add(Action.of(a -> a.remove(r -> r.index(old).alias(alias))));
+            }
+        }
+        actions.add(Action.of(a -> a.add(add -> add.index(index).alias(alias))));
+        client.indices().updateAliases(u -> u.actions(actions));
+
+        log.info("Alias {} moved from {} to {}", alias, previous, index);
+        return previous;
+    }
+}
@@ -0,0 +1,106 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// Writes long[] id blocks from IdBlockReader as _bulk deletes. The NDJSON body is encoded
+// straight from the primitive ids into one byte[] and sent with the low-level RestClient,
+// so there are no boxed ids, BulkOperation objects or per-id Strings. The response is
+// trimmed with filter_path and only walked when "errors" is true.
+public class RawBulkDeleteWriter implements ItemWriter<long[]> {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final byte[] SUFFIX = "\"}}\n".getBytes(StandardCharsets.UTF_8);
+
+    private final RestClient restClient;
+    private final String index;
+    private final byte[] prefix;
+    private final BulkFailureJournal failureJournal;
+
+    public RawBulkDeleteWriter(RestClient restClient, String index, BulkFailureJournal failureJournal) {
+        this.restClient = restClient;
+        this.index = index;
+        this.prefix = deletePrefix(index);
+        this.failureJournal = failureJournal;
+    }
+
+    @Override
+    public void write(Chunk<? extends long[]> chunk) throws Exception {
+        int ids = 0;
+        for (long[] block : chunk) ids += block.length;
+        if (ids == 0) return;
+
+        byte[] body = new byte[ids * (prefix.length + 20 + SUFFIX.length)];
+        int length = 0;
+        for (long[] block : chunk) {
+            length = encodeDeletes(prefix, block, body, length);
+        }
+
+        Request request = new Request("POST", "/_bulk");
+        request.addParameter("filter_path", "errors,items.*._id,items.*.status,items.*.error.reason");
+        request.setEntity(new ByteArrayEntity(body, 0, length, NDJSON));
+        Response response = restClient.performRequest(request);
+
+        try (InputStream content = response.getEntity().getContent()) {
+            JsonNode result = objectMapper.readTree(content);
+            if (!result.path("errors").asBoolean()) return;
+
+            for (JsonNode item : result.path("items")) {
+                JsonNode delete = item.path("delete");
+                JsonNode error = delete.get("error");
+                // A delete of an already missing document (404) is not an error here
+                if (error != null) {
+                    failureJournal.recordFailure("delete", index, delete.path("_id").asText(),
+                            error.path("reason").asText(), 1);
+                }
+            }
+        }
+    }
+
+    public static byte[] deletePrefix(String index) {
+        return ("{\"delete\":{\"_index\":\"" + index + "\",\"_id\":\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Appends one delete action line per id to target at offset; returns the new offset.
+    public static int encodeDeletes(byte[] prefix, long[] ids, byte[] target, int offset) {
+        for (long id : ids) {
+            System.arraycopy(prefix, 0, target, offset, prefix.length);
+            offset = writeLong(id, target, offset + prefix.length);
+            System.arraycopy(SUFFIX, 0, target, offset, SUFFIX.length);
+            offset += SUFFIX.length;
+        }
+        return offset;
+    }
+
+    private static int writeLong(long value, byte[] target, int offset) {
+        if (value == 0) {
+            target[offset] = '0';
+            return offset + 1;
+        }
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                byte[] min = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(min, 0, target, offset, min.length);
+                return offset + min.length;
+            }
+            target[offset++] = '-';
+            value = -value;
+        }
+        int digits = 0;
+        for (long v = value; v > 0; v /= 10) digits++;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+}
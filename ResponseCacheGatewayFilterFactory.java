@@ -0,0 +1,282 @@
+package com.example.gateway;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Gateway-side cache for GET responses, shared by all routes that apply it and bounded by body
+// bytes (gateway.response-cache.max-bytes). The key is route + path + query + principal (or a hash
+// of the Authorization header) + the request values of the route's varyHeaders and of the CORS
+// request headers; a response whose own Vary names anything else is not cached. CorsWebFilter
+// adds Vary: Origin, Access-Control-Request-Method, Access-Control-Request-Headers to every
+// response, so those are always part of the key. Only 200s with a Content-Length up to maxBodyBytes
+// and without no-store / Set-Cookie are stored.
+//
+// Hits carry an ETag (upstream's, or a hash of the body) and answer If-None-Match with 304.
+// Concurrent misses for one key wait on the first request's upstream call instead of making
+// their own. Put it first on the route so hits skip the concurrency limit and circuit breaker.
+//
+// The upstream body is written by NettyWriteResponseFilter, to the response of the exchange it
+// is handed. The filter is ordered before it (like ModifyResponseBody) so that exchange carries
+// the capturing response; at the default route filter order 0 the body bypasses the capture.
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final List<String> NOT_STORED_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.SET_COOKIE, HttpHeaders.DATE, "Keep-Alive");
+
+    // Sent as Vary by DefaultCorsProcessor on every response, CORS or not
+    static final List<String> CORS_VARY_HEADERS = List.of(
+            HttpHeaders.ORIGIN, HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(30);
+        private List<String> varyHeaders = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE);
+        private long maxBodyBytes = 256 * 1024;
+
+        public Duration getTtl() { return ttl; }
+        public Config setTtl(Duration ttl) { this.ttl = ttl; return this; }
+        public List<String> getVaryHeaders() { return varyHeaders; }
+        public Config setVaryHeaders(List<String> varyHeaders) { this.varyHeaders = varyHeaders; return this; }
+        public long getMaxBodyBytes() { return maxBodyBytes; }
+        public Config setMaxBodyBytes(long maxBodyBytes) { this.maxBodyBytes = maxBodyBytes; return this; }
+    }
+
+    // Shared between requests, never mutated after creation
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag,
+                                  long createdMillis, long ttlNanos) {}
+
+    public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry,
+                                             @Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length + 512)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                    || hasNoStore(exchange.getRequest().getHeaders())) {
+                return chain.filter(exchange);
+            }
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+
+            return keyOf(exchange, routeId, config).flatMap(key -> {
+                CachedResponse cached = cache.getIfPresent(key);
+                if (cached != null) {
+                    return writeCached(exchange, cached, routeId, "hit");
+                }
+
+                Sinks.One<CachedResponse> mine = Sinks.one();
+                Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, mine);
+                if (leader != null) {
+                    // Empty when the leader's response wasn't cacheable: go upstream ourselves
+                    return leader.asMono()
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .flatMap(response -> response.isPresent()
+                                    ? writeCached(exchange, response.get(), routeId, "coalesced")
+                                    : chain.filter(exchange));
+                }
+
+                meterRegistry.counter("gateway.response.cache", "route", routeId, "result", "miss").increment();
+                return fetch(exchange, chain, config, key, mine)
+                        .doFinally(signal -> {
+                            inFlight.remove(key, mine);
+                            mine.tryEmitEmpty(); // no-op if a response was already emitted
+                        });
+            });
+        }, ORDER);
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                             String key, Sinks.One<CachedResponse> sink) {
+        // Always fetch a full body: the 304 decision is ours, made against the cached ETag
+        ServerWebExchange unconditional = exchange.mutate()
+                .request(exchange.getRequest().mutate()
+                        .headers(headers -> {
+                            headers.remove(HttpHeaders.IF_NONE_MATCH);
+                            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                        })
+                        .build())
+                .build();
+
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isCacheable(getStatusCode(), getHeaders(), config)) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+
+                    CachedResponse response = store(key, getStatusCode(), getHeaders(), bytes, config);
+                    sink.tryEmitValue(response);
+                    getHeaders().setETag(response.etag());
+                    getHeaders().set("X-Cache", "MISS");
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(unconditional.mutate().response(capturing).build());
+    }
+
+    private CachedResponse store(String key, HttpStatusCode status, HttpHeaders upstream, byte[] body, Config config) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.forEach((name, values) -> {
+            if (NOT_STORED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, List.copyOf(values));
+            }
+        });
+        String etag = upstream.getETag() != null ? upstream.getETag() : "\"" + sha256(body) + "\"";
+        headers.setETag(etag);
+
+        CachedResponse response = new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, etag,
+                System.currentTimeMillis(), config.getTtl().toNanos());
+        cache.put(key, response);
+        return response;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String routeId, String result) {
+        meterRegistry.counter("gateway.response.cache", "route", routeId, "result", result).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf((System.currentTimeMillis() - cached.createdMillis()) / 1000));
+        response.getHeaders().set("X-Cache", "HIT");
+
+        if (etagMatches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static Mono<String> keyOf(ServerWebExchange exchange, String routeId, Config config) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(exchange.getRequest().getURI().getRawPath());
+        String query = exchange.getRequest().getURI().getRawQuery();
+        if (query != null) key.append('?').append(query);
+        for (String name : keyHeaders(config)) {
+            key.append('\n').append(name.toLowerCase()).append('=').append(String.join(",", headers.getOrEmpty(name)));
+        }
+
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        String anonymous = authorization == null ? "-" : "auth:" + sha256(authorization.getBytes(StandardCharsets.US_ASCII));
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .defaultIfEmpty(anonymous)
+                .map(principal -> key.append("\nprincipal=").append(principal).toString());
+    }
+
+    private static boolean isCacheable(HttpStatusCode status, HttpHeaders headers, Config config) {
+        if (status == null || status.value() != 200) return false;
+        if (hasNoStore(headers) || headers.containsKey(HttpHeaders.SET_COOKIE)) return false;
+        long length = headers.getContentLength();
+        if (length < 0 || length > config.getMaxBodyBytes()) return false; // chunked or too big
+        List<String> keyHeaders = keyHeaders(config);
+        for (String vary : headers.getVary()) {
+            if ("*".equals(vary) || keyHeaders.stream().noneMatch(vary::equalsIgnoreCase)) return false;
+        }
+        return true;
+    }
+
+    private static List<String> keyHeaders(Config config) {
+        List<String> names = new ArrayList<>(config.getVaryHeaders());
+        CORS_VARY_HEADERS.stream()
+                .filter(cors -> names.stream().noneMatch(cors::equalsIgnoreCase))
+                .forEach(names::add);
+        return names;
+    }
+
+    private static boolean hasNoStore(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.contains("no-store");
+    }
+
+    private static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || candidate.equals(etag) || ("W/" + etag).equals(candidate)) return true;
+        }
+        return false;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
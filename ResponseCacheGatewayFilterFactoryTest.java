@@ -0,0 +1,145 @@
+package com.example.gateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.FilteringWebHandler;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final byte[] BODY = "{\"status\":\"OPEN\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private CorsWebFilter corsWebFilter;
+    private GatewayFilter cacheFilter;
+
+    // Stands in for the routing filters: a 200 with a Content-Length
+    private final GatewayFilterChain upstream = exchange -> {
+        upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentLength(BODY.length);
+        return exchange.getResponse().writeWith(
+                Mono.just(exchange.getResponse().bufferFactory().wrap(BODY)));
+    };
+
+    @BeforeEach
+    void setUp() {
+        // Same shape as GatewayConfig.corsWebFilter
+        CorsConfiguration config = new CorsConfiguration();
+        config.addAllowedOriginPattern("*");
+        config.addAllowedHeader("*");
+        config.addAllowedMethod("*");
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", config);
+        corsWebFilter = new CorsWebFilter(source);
+
+        cacheFilter = new ResponseCacheGatewayFilterFactory(new SimpleMeterRegistry(), 1024 * 1024)
+                .apply(c -> c.setTtl(Duration.ofMinutes(1)));
+    }
+
+    private MockServerWebExchange get(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        corsWebFilter.filter(exchange, ex -> cacheFilter.filter(ex, upstream)).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    @Test
+    void secondGetIsServedFromCacheBehindCorsWebFilter() {
+        MockServerWebExchange first = get(MockServerHttpRequest.get("/myservice/orders/42"));
+        assertThat(first.getResponse().getHeaders().getVary()).contains(HttpHeaders.ORIGIN);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+
+        MockServerWebExchange second = get(MockServerHttpRequest.get("/myservice/orders/42"));
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    // Real gateway ordering: the body is written by NettyWriteResponseFilter after routing, and a
+    // plain route filter sits next to the cache at the default order, like circuitBreaker does
+    @Test
+    void proxiedResponseWrittenByNettyWriteResponseFilterIsCached() {
+        FakeNettyRoutingFilter routing = new FakeNettyRoutingFilter(BODY);
+        FilteringWebHandler handler = new FilteringWebHandler(
+                List.of(new NettyWriteResponseFilter(List.of()), routing));
+        Route route = Route.async()
+                .id("my-service")
+                .uri("lb://MY-SERVICE")
+                .predicate(exchange -> true)
+                .filter(cacheFilter)
+                .filter(new OrderedGatewayFilter((exchange, chain) -> chain.filter(exchange), 0))
+                .build();
+
+        MockServerWebExchange[] exchanges = new MockServerWebExchange[2];
+        for (int i = 0; i < exchanges.length; i++) {
+            exchanges[i] = MockServerWebExchange.from(MockServerHttpRequest.get("/myservice/orders/42").build());
+            exchanges[i].getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+            handler.handle(exchanges[i]).block(Duration.ofSeconds(5));
+        }
+
+        assertThat(exchanges[0].getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(exchanges[0].getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+        assertThat(exchanges[1].getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(exchanges[1].getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+        assertThat(routing.calls).hasValue(1);
+    }
+
+    @Test
+    void corsRequestsAreKeyedByOrigin() {
+        get(MockServerHttpRequest.get("/myservice/orders/42").header(HttpHeaders.ORIGIN, "https://a.example"));
+        MockServerWebExchange sameOrigin = get(MockServerHttpRequest.get("/myservice/orders/42")
+                .header(HttpHeaders.ORIGIN, "https://a.example"));
+        MockServerWebExchange otherOrigin = get(MockServerHttpRequest.get("/myservice/orders/42")
+                .header(HttpHeaders.ORIGIN, "https://b.example"));
+
+        assertThat(sameOrigin.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(otherOrigin.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(otherOrigin.getResponse().getHeaders().getAccessControlAllowOrigin()).isEqualTo("https://b.example");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void ifNoneMatchOnCachedEntryReturns304() {
+        MockServerWebExchange first = get(MockServerHttpRequest.get("/myservice/orders/42"));
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidated = get(MockServerHttpRequest.get("/myservice/orders/42")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(revalidated.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void unknownVaryIsNotCached() {
+        GatewayFilterChain varyingUpstream = exchange -> {
+            exchange.getResponse().getHeaders().add(HttpHeaders.VARY, "X-Tenant");
+            return upstream.filter(exchange);
+        };
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/ref").build());
+            cacheFilter.filter(exchange, varyingUpstream).block(Duration.ofSeconds(5));
+            assertThat(exchange.getResponse().getHeaders().getFirst("X-Cache")).isNull();
+        }
+        assertThat(upstreamCalls).hasValue(2);
+    }
+}
@@ -6,21 +6,50 @@ PUT your_index_name
         "special_char_tokenizer": {
           "type": "pattern",
           "pattern": "[/\\-_,]+"  // Splits on /, -, _, and ,
+        },
+        "substring_tokenizer": {
+          "type": "ngram",
+          "min_gram": 3,
+          "max_gram": 3,
+          "token_chars": []  // Keep every character, /, -, _ and , are searchable too
         }
       },
       "analyzer": {
         "circuitId_analyzer": {
           "type": "custom",
           "tokenizer": "special_char_tokenizer"
+        },
+        "substring_analyzer": {
+          "type": "custom",
+          "tokenizer": "substring_tokenizer",
+          "filter": ["uppercase"]
         }
       }
     }
   },
   "mappings": {
+    "dynamic_templates": [
+      {
+        "global_search_strings": {
+          "match_mapping_type": "string",
+          "mapping": {
+            "type": "text",
+            "fields": {
+              "keyword": { "type": "keyword", "ignore_above": 256 },
+              "ngram": { "type": "text", "analyzer": "substring_analyzer", "norms": false }
+            }
+          }
+        }
+      }
+    ],
     "properties": {
       "circuitId": {
         "type": "text",
-        "analyzer": "circuitId_analyzer"
+        "analyzer": "circuitId_analyzer",
+        "fields": {
+          "keyword": { "type": "keyword", "ignore_above": 256 },
+          "ngram": { "type": "text", "analyzer": "substring_analyzer", "norms": false }
+        }
       },
       "normal_keyword_field": {
         "type": "keyword"
@@ -32,6 +61,30 @@ PUT your_index_name
   }
 }
 
+// Reindex for substring search: analyzers can't be added to an open index,
+// so build a new index with the settings above and move the alias over.
+// reindexJob (Batch.java) does the same from Oracle using order_details_index.json;
+// keep that file in sync with the settings/mappings above.
+PUT order_details_v2
+// (settings + mappings as above)
+
+POST _reindex?slices=auto&wait_for_completion=false
+{
+  "source": { "index": "order_details_alias" },
+  "dest": { "index": "order_details_v2" }
+}
+
+// The remove matches whatever order_details_* index the alias points to now (GET
+// _alias/order_details_alias shows it), so the swap works from any version. Both actions
+// run atomically. OrderIndexRebuilder.swapAlias resolves the target the same way.
+POST _aliases
+{
+  "actions": [
+    { "remove": { "index": "order_details_*", "alias": "order_details_alias" } },
+    { "add": { "index": "order_details_v2", "alias": "order_details_alias" } }
+  ]
+}
+
 
 
 
@@ -68,6 +121,9 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
                                 .map(f -> f + ".keyword")
                                 .collect(Collectors.toList()))
                 ));
+            } else if ("substring".equalsIgnoreCase(matchType)) {
+                // Substring match on the trigram subfield, no term dictionary scan
+                boolQueryBuilder.must(buildSubstringQuery(searchId));
             } else {
                 // Partial match using wildcard on keyword fields
                 BoolQuery.Builder searchBool = QueryBuilders.bool();
@@ -81,19 +137,23 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
             }
         }
 
-        // 4. GSAM Filter (MUST clause)
+        // 4. GSAM Filter (FILTER clause)
         if ("true".equalsIgnoreCase(isGsamCheckRequired)) {
             log.debug("Applying GSAM filters");
-            BoolQuery.Builder gsamQuery = QueryBuilders.bool();
+            // Stored values can be delimited lists ("L1,L2"), so each level is matched as a
+            // substring, not as an exact term. Unscored, and no levels means no documents.
+            BoolQuery.Builder gsamQuery = QueryBuilders.bool().minimumShouldMatch("1");
             Arrays.stream(gsamSensitivity.split("[,|^]"))
-                  .forEach(gsam -> gsamQuery.should(QueryBuilders.wildcard(w -> w
-                          .field("gsamSensitivityLevel.keyword")
-                          .value("*" + gsam + "*")
-                  )));
-            boolQueryBuilder.must(gsamQuery.build()._toQuery());
+                    .map(String::trim)
+                    .filter(gsam -> !gsam.isEmpty())
+                    .distinct()
+                    .forEach(gsam -> gsamQuery.should(QueryBuilders.wildcard(w -> w
+                            .field("gsamSensitivityLevel.keyword")
+                            .value("*" + gsam + "*"))));
+            boolQueryBuilder.filter(gsamQuery.build()._toQuery());
         }
 
-        // 5. Federal Flag Filter (MUST clause)
+        // 5. Federal Flag Filter (MUST_NOT clause)
         if ("No".equalsIgnoreCase(federalAccessStatus)) {
             log.debug("Applying federal filter");
             boolQueryBuilder.mustNot(QueryBuilders.term(t -> t
@@ -102,7 +162,7 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
             );
         }
 
-        // 6. Additional Filters (MUST clauses)
+        // 6. Additional Filters (FILTER clauses)
         if (globalSearchRequest.getFilters() != null) {
             log.debug("Applying additional filters");
             GlobalSearchFilters filters = globalSearchRequest.getFilters();
@@ -116,7 +176,7 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
                             .value(value)
                             .caseInsensitive(true)
                     ));
-                    boolQueryBuilder.must(filterQuery.build()._toQuery());
+                    boolQueryBuilder.filter(filterQuery.build()._toQuery());
                 }
             };
 
@@ -131,13 +191,13 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
             addFilter.accept("productType", filters.getProductType());
         }
 
-        // 7. Date Filters (MUST clauses)
+        // 7. Date Filters (FILTER clauses)
         if (globalSearchRequest.getDates() != null) {
             log.debug("Applying date filters");
             GlobalSearchDates dates = globalSearchRequest.getDates();
             BiConsumer<String, DateRange> addDateFilter = (fieldName, dateRange) -> {
                 if (dateRange != null && dateRange.getStartDate() != null && dateRange.getEndDate() != null) {
-                    boolQueryBuilder.must(QueryBuilders.range(r -> r
+                    boolQueryBuilder.filter(QueryBuilders.range(r -> r
                             .field(fieldName)
                             .from(dateRange.getStartDate() + " 00:00:00")
                             .to(dateRange.getEndDate() + " 00:00:00")
@@ -165,12 +225,16 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
                         .preTags("")
                         .postTags("")));
 
-        log.debug("Final Query: {}", searchRequestBuilder.toString());
+        SearchRequest searchRequest = searchRequestBuilder.build();
+        if (log.isDebugEnabled()) {
+            // Serializing the request is expensive, only pay for it when debug is on
+            log.debug("Final Query: {}", searchRequest);
+        }
         SearchResponse<ElasticSearchOrderDetail> response = 
-                esClient.search(searchRequestBuilder.build(), ElasticSearchOrderDetail.class);
+                esClient.search(searchRequest, ElasticSearchOrderDetail.class);
         
         responseData.setSearchResponse(response);
-        log.info("Search completed with {} hits", response.hits().hits().size());
+        log.info("Search completed with {} hits in {} ms", response.hits().hits().size(), response.took());
 
     } catch (Exception e) {
         log.error("Search failed for ID: {}", searchId, e);
@@ -179,3 +243,27 @@ public ResponseData getGlobalSearchData(String gsamSensitivity, String isGsamChe
 
     return responseData;
 }
+
+private static final int SUBSTRING_MIN_GRAM = 3;
+
+private Query buildSubstringQuery(String searchId) {
+    String term = searchId.trim().toUpperCase();
+    BoolQuery.Builder substringBool = QueryBuilders.bool();
+
+    if (term.length() < SUBSTRING_MIN_GRAM) {
+        // Shorter than one gram, the trigram field can't answer it. Same "*term*" wildcard as the
+        // partial mode so 1-2 character searches keep matching anywhere in the value; this is
+        // the slow path, but only for terms too short to be selective anyway.
+        EZStatusUtil.getGlobalSearchMap().keySet().forEach(field ->
+                substringBool.should(QueryBuilders.wildcard(w -> w
+                        .field(field + ".keyword")
+                        .value("*" + term + "*"))));
+    } else {
+        // Trigrams of the term at consecutive positions == the term is a substring
+        EZStatusUtil.getGlobalSearchMap().keySet().forEach(field ->
+                substringBool.should(QueryBuilders.matchPhrase(m -> m
+                        .field(field + ".ngram")
+                        .query(term))));
+    }
+    return substringBool.build()._toQuery();
+}
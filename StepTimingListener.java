@@ -0,0 +1,71 @@
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Records batch.step.duration per step and, after the job, logs the sum of step times against
+// the job's wall clock (time saved by running steps in parallel) and the critical path: the
+// chain of steps, walking back from the last one to finish, each starting after the previous ended.
+public class StepTimingListener implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StepTimingListener.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public StepTimingListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String jobName = jobExecution.getJobInstance().getJobName();
+        // Steps that never ran (skipped by a decider, job stopped first) have no start or end time
+        List<StepExecution> steps = jobExecution.getStepExecutions().stream()
+                .filter(step -> step.getStartTime() != null && step.getEndTime() != null)
+                .toList();
+        if (steps.isEmpty() || jobExecution.getStartTime() == null || jobExecution.getEndTime() == null) return;
+
+        Duration stepTotal = Duration.ZERO;
+        for (StepExecution step : steps) {
+            Duration duration = Duration.between(step.getStartTime(), step.getEndTime());
+            stepTotal = stepTotal.plus(duration);
+            Timer.builder("batch.step.duration")
+                    .tag("job", jobName)
+                    .tag("step", step.getStepName())
+                    .tag("status", step.getStatus().name())
+                    .register(meterRegistry)
+                    .record(duration);
+        }
+
+        Duration wallClock = Duration.between(jobExecution.getStartTime(), jobExecution.getEndTime());
+        log.info("Job {} took {} ms wall clock, {} ms summed over steps ({} ms saved by parallel steps). Critical path: {}",
+                jobName, wallClock.toMillis(), stepTotal.toMillis(),
+                Math.max(0, stepTotal.minus(wallClock).toMillis()), criticalPath(steps));
+    }
+
+    // Predecessors must end strictly before the current step starts, so end times strictly decrease
+    // along the path and it terminates; a zero-length step would otherwise select itself.
+    private static String criticalPath(List<StepExecution> steps) {
+        List<String> path = new ArrayList<>();
+        StepExecution current = steps.stream().max(Comparator.comparing(StepExecution::getEndTime)).orElseThrow();
+        while (current != null) {
+            path.add(0, current.getStepName() + "=" + Duration.between(current.getStartTime(), current.getEndTime()).toMillis() + "ms");
+            StepExecution successor = current;
+            LocalDateTime start = current.getStartTime();
+            current = steps.stream()
+                    .filter(step -> step != successor && step.getEndTime().isBefore(start))
+                    .max(Comparator.comparing(StepExecution::getEndTime))
+                    .orElse(null);
+        }
+        return String.join(" -> ", path);
+    }
+}
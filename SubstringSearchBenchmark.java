@@ -0,0 +1,119 @@
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Substring search before/after, on the Lucene index shape Elasticsearch builds from the mapping
+// in Search.java: the old partial mode runs "*TERM*" as a wildcard on circuitId.keyword (a
+// scan of the term dictionary), the substring mode a phrase of the term's trigrams on
+// circuitId.ngram (substring_analyzer: 3-gram tokenizer + uppercase). Query cache is off, so
+// every op pays the full query. Both return the same count.
+//   java -jar benchmarks.jar SubstringSearchBenchmark -p docs=1000000
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstringSearchBenchmark {
+
+    private static final String KEYWORD_FIELD = "circuitId.keyword";
+    private static final String NGRAM_FIELD = "circuitId.ngram";
+    private static final int GRAM = 3;
+
+    @Param({"200000"})
+    public int docs;
+
+    // Rare, medium and very common substrings
+    @Param({"/004217/", "KFFN/0042", "TELCO"})
+    public String term;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Analyzer ngram = CustomAnalyzer.builder()
+                .withTokenizer("ngram", "minGramSize", String.valueOf(GRAM), "maxGramSize", String.valueOf(GRAM))
+                .addTokenFilter("uppercase")
+                .build();
+        Analyzer analyzer = new PerFieldAnalyzerWrapper(new KeywordAnalyzer(), Map.of(NGRAM_FIELD, ngram));
+
+        directory = new ByteBuffersDirectory();
+        Random random = new Random(42);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer))) {
+            for (int i = 0; i < docs; i++) {
+                // Circuit id shape: "37/KFFN/004217/001/TELCO"
+                String circuitId = String.format("%02d/%s/%06d/%03d/TELCO",
+                        random.nextInt(100), random.nextBoolean() ? "KFFN" : "KQGS",
+                        random.nextInt(1_000_000), random.nextInt(1000));
+                Document doc = new Document();
+                doc.add(new StringField(KEYWORD_FIELD, circuitId, Field.Store.NO));
+                doc.add(new TextField(NGRAM_FIELD, circuitId, Field.Store.NO));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(null);
+
+        if (before() != after()) {
+            throw new IllegalStateException("Wildcard and trigram phrase disagree for " + term);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    // Partial mode, what substring searches used to run: wildcard on the keyword field
+    @Benchmark
+    public int before() throws IOException {
+        return searcher.count(new WildcardQuery(new Term(KEYWORD_FIELD, "*" + term + "*")));
+    }
+
+    // matchType=substring: match_phrase on the trigram subfield
+    @Benchmark
+    public int after() throws IOException {
+        PhraseQuery.Builder phrase = new PhraseQuery.Builder();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            phrase.add(new Term(NGRAM_FIELD, term.substring(i, i + GRAM)), i);
+        }
+        return searcher.count(phrase.build());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.gateway;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.MalformedClaimException;
+import org.jose4j.jwt.consumer.ErrorCodes;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.jose4j.lang.UnresolvableKeyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+// Validated claims per bearer token, so repeated tokens skip signature verification and claims
+// parsing. Keyed by SHA-256 of the token (raw tokens are never held as keys). A valid entry
+// lives until the token's exp, capped at max-ttl; a token that failed for a reason that cannot
+// change (bad signature, expired, wrong claims) is remembered for negative-ttl so a replayed bad
+// token is rejected just as cheaply. Key resolution failures are not cached: during signing-key
+// rotation a new kid is unknown until the JWKS refreshes, and the next try must see the new key.
+// Both JwtValidationFilter and the AuthGlobalFilter/AuthOrchestrator path should validate
+// through here so they share entries.
+@Component
+public class ValidatedTokenCache {
+
+    private static final Set<Integer> PERMANENT_FAILURES = Set.of(
+            ErrorCodes.SIGNATURE_INVALID, ErrorCodes.SIGNATURE_MISSING, ErrorCodes.EXPIRED,
+            ErrorCodes.EXPIRATION_MISSING, ErrorCodes.AUDIENCE_INVALID, ErrorCodes.AUDIENCE_MISSING,
+            ErrorCodes.ISSUER_INVALID, ErrorCodes.ISSUER_MISSING, ErrorCodes.SUBJECT_INVALID,
+            ErrorCodes.SUBJECT_MISSING, ErrorCodes.MALFORMED_CLAIM, ErrorCodes.JSON_INVALID);
+
+    private final JwtValidator jwtValidator;
+    private final Duration negativeTtl;
+    private final Cache<String, Result> cache;
+
+    // Exactly one of claims / failure is set. Cached claims are shared and must not be mutated.
+    // A failure with ttlNanos 0 is handed to the callers waiting on the load, then dropped.
+    private record Result(JwtClaims claims, InvalidJwtException failure, long ttlNanos) {}
+
+    public ValidatedTokenCache(JwtValidator jwtValidator,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.token-cache.max-size:100000}") long maxSize,
+                               @Value("${jwt.token-cache.max-ttl:5m}") Duration maxTtl,
+                               @Value("${jwt.token-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.jwtValidator = jwtValidator;
+        this.negativeTtl = negativeTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Result>() {
+                    @Override
+                    public long expireAfterCreate(String key, Result result, long currentTime) {
+                        return result.failure() != null ? result.ttlNanos() : Math.min(result.ttlNanos(), maxTtl.toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Result result, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, result, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Result result, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.validated");
+    }
+
+    public JwtClaims validate(String token) throws InvalidJwtException {
+        Result result = cache.get(hash(token), key -> load(token));
+        if (result.failure() != null) {
+            throw result.failure();
+        }
+        return result.claims();
+    }
+
+    private Result load(String token) {
+        try {
+            JwtClaims claims = jwtValidator.validate(token);
+            long ttlMillis = claims.getExpirationTime().getValueInMillis() - System.currentTimeMillis();
+            return new Result(claims, null, Duration.ofMillis(Math.max(0, ttlMillis)).toNanos());
+        } catch (InvalidJwtException e) {
+            return new Result(null, e, isPermanent(e) ? negativeTtl.toNanos() : 0);
+        } catch (MalformedClaimException e) {
+            // exp is required by the consumer, so this is not expected
+            return new Result(null, new InvalidJwtException("Unreadable exp claim", List.of(), null), negativeTtl.toNanos());
+        }
+    }
+
+    // Same token, same answer: every reported error is about the token itself, and no key lookup
+    // (unknown kid, JWKS fetch error) was involved
+    private static boolean isPermanent(InvalidJwtException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnresolvableKeyException || cause instanceof IOException) return false;
+        }
+        return !e.getErrorDetails().isEmpty()
+                && e.getErrorDetails().stream().allMatch(error -> PERMANENT_FAILURES.contains(error.getErrorCode()));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}